@@ -0,0 +1,180 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.buildhelpers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Precompresses static resources and generates a manifest of their content
+ * hashes.
+ * <p>
+ * For each js, css and html file in the given directory, a gzip compressed
+ * variant with the suffix {@code .gz} is created using the best compression
+ * level unless one already exists. The content hash of every resource is
+ * written to {@value #MANIFEST_NAME} in the same directory. The server uses
+ * the hashes to create versioned URLs for the resources that browsers can
+ * cache without ever revalidating them.
+ * <p>
+ * The hash must be calculated in the same way as in
+ * {@code com.vaadin.server.StaticResourceCache}.
+ */
+public class GenerateResourceManifest {
+
+    /**
+     * The name of the generated manifest file.
+     */
+    public static final String MANIFEST_NAME = "resource-manifest.properties";
+
+    private static final int HASH_LENGTH = 16;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Invalid number of parameters\n"
+                    + "Usage: java -cp .. GenerateResourceManifest <root directory> <resource directory>\n"
+                    + "Example: java -cp .. GenerateResourceManifest target/classes VAADIN/themes");
+            System.exit(1);
+        }
+
+        File root = new File(args[0]);
+        File directory = new File(root, args[1]);
+        if (!directory.isDirectory()) {
+            System.err.println("No such directory: " + directory);
+            System.exit(1);
+        }
+
+        Map<String, String> hashes = new TreeMap<>();
+        for (Path path : listResources(directory.toPath())) {
+            byte[] content = Files.readAllBytes(path);
+            if (isCompressible(path)) {
+                precompress(path, content);
+            }
+
+            String name = "/" + root.toPath().relativize(path).toString()
+                    .replace(File.separatorChar, '/');
+            hashes.put(name, getContentHash(content));
+        }
+
+        writeManifest(new File(directory, MANIFEST_NAME), hashes);
+        System.out.println("Wrote content hashes of " + hashes.size()
+                + " resources to " + new File(directory, MANIFEST_NAME));
+    }
+
+    private static List<Path> listResources(Path directory)
+            throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> !path.toString().endsWith(".gz"))
+                    .filter(path -> !path.getFileName().toString()
+                            .equals(MANIFEST_NAME))
+                    .sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static boolean isCompressible(Path path) {
+        String name = path.getFileName().toString();
+        return name.endsWith(".js") || name.endsWith(".css")
+                || name.endsWith(".html");
+    }
+
+    private static void precompress(Path path, byte[] content)
+            throws IOException {
+        Path compressedPath = path
+                .resolveSibling(path.getFileName().toString() + ".gz");
+        if (Files.exists(compressedPath)) {
+            return;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(content);
+        }
+
+        // Nothing is gained by serving a compressed file that is not smaller
+        if (bytes.size() < content.length) {
+            Files.write(compressedPath, bytes.toByteArray());
+        }
+    }
+
+    /**
+     * Calculates the content hash of a resource. The hash is the start of the
+     * URL safe Base64 encoding of the SHA-256 digest of the content.
+     *
+     * @param content
+     *            the content to hash
+     * @return the content hash
+     */
+    public static String getContentHash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(content);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest)
+                    .substring(0, HASH_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void writeManifest(File file, Map<String, String> hashes)
+            throws IOException {
+        StringBuilder manifest = new StringBuilder();
+        manifest.append(
+                "# Content hashes of static resources, generated at build time\n");
+        hashes.forEach((name, hash) -> manifest.append(escape(name))
+                .append('=').append(hash).append('\n'));
+
+        try (OutputStream out = new FileOutputStream(file)) {
+            out.write(manifest.toString().getBytes(StandardCharsets.ISO_8859_1));
+        }
+    }
+
+    private static String escape(String key) {
+        // Keep the file readable while following the properties file format
+        StringBuilder escaped = new StringBuilder();
+        for (char c : key.toCharArray()) {
+            if (c == ' ' || c == '=' || c == ':' || c == '#' || c == '!'
+                    || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c > 0x7e) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
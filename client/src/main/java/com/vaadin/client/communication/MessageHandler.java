@@ -43,6 +43,7 @@ import com.vaadin.client.ApplicationConnection.ResponseHandlingStartedEvent;
 import com.vaadin.client.ComponentConnector;
 import com.vaadin.client.ConnectorHierarchyChangeEvent;
 import com.vaadin.client.ConnectorMap;
+import com.vaadin.client.FastStringMap;
 import com.vaadin.client.FastStringSet;
 import com.vaadin.client.HasComponentsConnector;
 import com.vaadin.client.JsArrayObject;
@@ -68,6 +69,7 @@ import com.vaadin.client.ui.dd.VDragAndDropManager;
 import com.vaadin.client.ui.ui.UIConnector;
 import com.vaadin.client.ui.window.WindowConnector;
 import com.vaadin.shared.ApplicationConstants;
+import com.vaadin.shared.JsonConstants;
 import com.vaadin.shared.communication.MethodInvocation;
 import com.vaadin.shared.communication.SharedState;
 
@@ -191,6 +193,15 @@ public class MessageHandler {
 
     private ApplicationConnection connection;
 
+    /**
+     * The child connector ids last received from the server for each
+     * connector. Hierarchy deltas are relative to these lists rather than to
+     * the current children, which can differ if some child could not be
+     * resolved.
+     */
+    private FastStringMap<JsArrayString> receivedChildConnectorIds = FastStringMap
+            .create();
+
     /**
      * Data structure holding information about pending UIDL messages.
      */
@@ -808,6 +819,7 @@ public class MessageHandler {
                 for (int i = 0; i < nrDetached; i++) {
                     ServerConnector connector = getConnectorMap()
                             .getConnector(detachedArray.get(i));
+                    receivedChildConnectorIds.remove(detachedArray.get(i));
 
                     Profiler.enter(
                             "unregisterRemovedConnectors unregisterConnector");
@@ -1137,8 +1149,17 @@ public class MessageHandler {
                     JsArrayString hierarchyKeys = hierarchies.getKeyArray();
                     for (int i = 0; i < hierarchyKeys.length(); i++) {
                         String connectorId = hierarchyKeys.get(i);
-                        JsArrayString childConnectorIds = hierarchies
-                                .getJSStringArray(connectorId);
+                        JsArrayString childConnectorIds;
+                        if (isHierarchyDelta(hierarchies, connectorId)) {
+                            childConnectorIds = applyHierarchyDelta(
+                                    connectorId,
+                                    hierarchies.getValueMap(connectorId));
+                        } else {
+                            childConnectorIds = hierarchies
+                                    .getJSStringArray(connectorId);
+                        }
+                        receivedChildConnectorIds.put(connectorId,
+                                childConnectorIds);
                         hasHierarchy.add(connectorId);
 
                         updateConnectorHierarchy(connectorId, childConnectorIds,
@@ -1158,6 +1179,8 @@ public class MessageHandler {
                     for (int i = 0; i < stateKeys.length(); i++) {
                         String connectorId = stateKeys.get(i);
                         if (!hasHierarchy.contains(connectorId)) {
+                            receivedChildConnectorIds.put(connectorId,
+                                    emptyArray);
                             updateConnectorHierarchy(connectorId, emptyArray,
                                     maybeDetached, result);
                         }
@@ -1192,6 +1215,44 @@ public class MessageHandler {
 
             }
 
+            /**
+             * Applies a hierarchy delta sent by the server to the children last
+             * received from the server for a connector.
+             *
+             * @param connectorId
+             *            the id of the connector whose children have changed
+             * @param delta
+             *            the hierarchy delta
+             * @return array of the new child connector ids
+             */
+            private JsArrayString applyHierarchyDelta(String connectorId,
+                    ValueMap delta) {
+                JsArrayString oldChildIds = receivedChildConnectorIds
+                        .get(connectorId);
+                if (oldChildIds == null) {
+                    oldChildIds = JavaScriptObject.createArray().cast();
+                }
+                int start = delta.getInt(JsonConstants.HIERARCHY_DELTA_START);
+                int removeCount = delta
+                        .getInt(JsonConstants.HIERARCHY_DELTA_REMOVE_COUNT);
+                JsArrayString inserted = delta.getJSStringArray(
+                        JsonConstants.HIERARCHY_DELTA_INSERT);
+
+                JsArrayString childConnectorIds = JavaScriptObject
+                        .createArray().cast();
+                for (int i = 0; i < start; i++) {
+                    childConnectorIds.push(oldChildIds.get(i));
+                }
+                for (int i = 0; i < inserted.length(); i++) {
+                    childConnectorIds.push(inserted.get(i));
+                }
+                for (int i = start + removeCount; i < oldChildIds
+                        .length(); i++) {
+                    childConnectorIds.push(oldChildIds.get(i));
+                }
+                return childConnectorIds;
+            }
+
             /**
              * Updates the hierarchy for a connector
              *
@@ -1783,6 +1844,12 @@ public class MessageHandler {
         }
     }
 
+    private static native boolean isHierarchyDelta(ValueMap hierarchies,
+            String connectorId)
+    /*-{
+        return !Array.isArray(hierarchies[connectorId]);
+    }-*/;
+
     private static native ValueMap parseJSONResponse(String jsonText)
     /*-{
       try {
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.data.provider;
+
+import com.vaadin.shared.Range;
+
+/**
+ * A read-ahead policy that sends additional rows in the direction the client
+ * is scrolling. When the client requests rows that continue the previously sent
+ * range, the requested range is grown by the length of the previously sent
+ * range. The amount of rows read ahead thus grows for as long as the user keeps
+ * scrolling in the same direction, up to a configurable maximum. Requests that
+ * jump to some other part of the data are sent as requested.
+ *
+ * @author Vaadin Ltd.
+ * @since 8.0
+ */
+public class AdaptiveReadAheadPolicy implements ReadAheadPolicy {
+
+    /**
+     * The default maximum number of rows to send in addition to the requested
+     * rows.
+     */
+    public static final int DEFAULT_MAX_READ_AHEAD = 100;
+
+    private final int maxReadAhead;
+
+    /**
+     * Creates a new adaptive read-ahead policy with the default maximum read
+     * ahead.
+     */
+    public AdaptiveReadAheadPolicy() {
+        this(DEFAULT_MAX_READ_AHEAD);
+    }
+
+    /**
+     * Creates a new adaptive read-ahead policy with the given maximum read
+     * ahead.
+     *
+     * @param maxReadAhead
+     *            the maximum number of rows to send in addition to the
+     *            requested rows, not negative
+     */
+    public AdaptiveReadAheadPolicy(int maxReadAhead) {
+        if (maxReadAhead < 0) {
+            throw new IllegalArgumentException(
+                    "Max read ahead cannot be negative");
+        }
+        this.maxReadAhead = maxReadAhead;
+    }
+
+    /**
+     * Gets the maximum number of rows to send in addition to the requested
+     * rows.
+     *
+     * @return the maximum read ahead
+     */
+    public int getMaxReadAhead() {
+        return maxReadAhead;
+    }
+
+    @Override
+    public Range getRangeToPush(Range requestedRange, Range previousRange) {
+        if (requestedRange.isEmpty() || previousRange.isEmpty()) {
+            return requestedRange;
+        }
+
+        int readAhead = Math.min(maxReadAhead,
+                Math.max(requestedRange.length(), previousRange.length()));
+
+        if (requestedRange.getStart() >= previousRange.getStart()
+                && requestedRange.getStart() <= previousRange.getEnd()
+                && requestedRange.getEnd() > previousRange.getEnd()) {
+            // Scrolling down
+            return requestedRange.expand(0, readAhead);
+        } else if (requestedRange.getEnd() <= previousRange.getEnd()
+                && requestedRange.getEnd() >= previousRange.getStart()
+                && requestedRange.getStart() < previousRange.getStart()) {
+            // Scrolling up
+            return requestedRange.expand(
+                    Math.min(readAhead, requestedRange.getStart()), 0);
+        } else {
+            return requestedRange;
+        }
+    }
+}
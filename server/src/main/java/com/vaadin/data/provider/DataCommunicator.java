@@ -18,12 +18,16 @@ package com.vaadin.data.provider;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -37,6 +41,7 @@ import com.vaadin.shared.data.DataCommunicatorClientRpc;
 import com.vaadin.shared.data.DataCommunicatorConstants;
 import com.vaadin.shared.data.DataRequestRpc;
 import com.vaadin.shared.extension.datacommunicator.DataCommunicatorState;
+import com.vaadin.ui.UI;
 
 import elemental.json.Json;
 import elemental.json.JsonArray;
@@ -66,7 +71,15 @@ public class DataCommunicator<T> extends AbstractExtension {
         @Override
         public void requestRows(int firstRowIndex, int numberOfRows,
                 int firstCachedRowIndex, int cacheSize) {
-            pushRows = Range.withLength(firstRowIndex, numberOfRows);
+            Range requested = Range.withLength(firstRowIndex, numberOfRows);
+            if (!pushRows.isEmpty()
+                    && requested.getStart() <= pushRows.getEnd()
+                    && pushRows.getStart() <= requested.getEnd()) {
+                // Fetch adjacent requests in the same round trip in one go
+                pushRows = pushRows.combineWith(requested);
+            } else {
+                pushRows = requested;
+            }
             markAsDirty();
         }
 
@@ -151,6 +164,20 @@ public class DataCommunicator<T> extends AbstractExtension {
             }
         }
 
+        /**
+         * Checks whether the given data object is currently active, i.e.
+         * available on the client side.
+         *
+         * @param dataObject
+         *            the data object to check
+         * @return <code>true</code> if the data object is active,
+         *         <code>false</code> if not
+         */
+        public boolean isActiveData(T dataObject) {
+            return getKeyMapper().has(dataObject)
+                    && activeData.contains(getKeyMapper().key(dataObject));
+        }
+
         /**
          * Returns the collection of all currently active data.
          *
@@ -198,6 +225,10 @@ public class DataCommunicator<T> extends AbstractExtension {
     private final Set<T> updatedData = new HashSet<>();
     private int minPushSize = 40;
     private Range pushRows = Range.withLength(0, minPushSize);
+    private Range previousPushRows = Range.withLength(0, 0);
+    private ReadAheadPolicy readAheadPolicy = new AdaptiveReadAheadPolicy();
+    private transient Executor fetchExecutor;
+    private int generation = 0;
 
     private Object filter;
     private Comparator<T> inMemorySorting;
@@ -235,21 +266,45 @@ public class DataCommunicator<T> extends AbstractExtension {
             return;
         }
 
-        if (initial || reset) {
-            @SuppressWarnings({ "rawtypes", "unchecked" })
-            int dataProviderSize = getDataProvider().size(new Query(filter));
-            rpc.reset(dataProviderSize);
+        boolean resetSize = initial || reset;
+        if (resetSize) {
+            previousPushRows = Range.withLength(0, 0);
         }
 
+        Range rangeToPush = pushRows;
         if (!pushRows.isEmpty()) {
-            int offset = pushRows.getStart();
-            int limit = pushRows.length();
+            // Rows past the end are simply not returned by the data provider
+            rangeToPush = readAheadPolicy.getRangeToPush(pushRows,
+                    previousPushRows);
+            assert pushRows.isSubsetOf(rangeToPush)
+                    && rangeToPush.getStart() >= 0 : "Read-ahead policy "
+                            + readAheadPolicy + " returned " + rangeToPush
+                            + " for " + pushRows;
+            previousPushRows = rangeToPush;
+        }
+
+        if (fetchExecutor != null && !getDataProvider().isInMemory()
+                && getUI() != null) {
+            fetchAsync(resetSize, rangeToPush);
+        } else {
+            if (resetSize) {
+                @SuppressWarnings({ "rawtypes", "unchecked" })
+                int dataProviderSize = getDataProvider()
+                        .size(new Query(filter));
+                rpc.reset(dataProviderSize);
+            }
 
-            @SuppressWarnings({ "rawtypes", "unchecked" })
-            Stream<T> rowsToPush = getDataProvider().fetch(new Query(offset,
-                    limit, backEndSorting, inMemorySorting, filter));
+            if (!rangeToPush.isEmpty()) {
+                int offset = rangeToPush.getStart();
+                int limit = rangeToPush.length();
 
-            pushData(offset, rowsToPush);
+                @SuppressWarnings({ "rawtypes", "unchecked" })
+                Stream<T> rowsToPush = getDataProvider().fetch(new Query(
+                        offset, limit, backEndSorting, inMemorySorting,
+                        filter));
+
+                pushData(offset, rowsToPush);
+            }
         }
 
         if (!updatedData.isEmpty()) {
@@ -266,6 +321,69 @@ public class DataCommunicator<T> extends AbstractExtension {
         updatedData.clear();
     }
 
+    /**
+     * Starts fetching the size and rows from the back end without holding the
+     * session lock. The results are sent to the client through
+     * {@link UI#access(Runnable)} once available, unless the data has been
+     * reset in the meantime. If fetching fails, the client is reset to have
+     * no rows so that it does not keep waiting for the rows, and the failure
+     * is passed on to the error handler.
+     *
+     * @param resetSize
+     *            <code>true</code> to also fetch the size and reset the client
+     * @param range
+     *            the range of rows to fetch, may be empty
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private void fetchAsync(boolean resetSize, Range range) {
+        DataProvider backEnd = getDataProvider();
+        UI ui = getUI();
+        int fetchGeneration = generation;
+
+        CompletableFuture<Integer> sizeFuture;
+        if (resetSize) {
+            sizeFuture = backEnd.sizeAsync(new Query(filter), fetchExecutor);
+        } else {
+            sizeFuture = CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<List<T>> rowsFuture;
+        if (range.isEmpty()) {
+            rowsFuture = CompletableFuture
+                    .completedFuture(Collections.emptyList());
+        } else {
+            rowsFuture = backEnd.fetchAsync(
+                    new Query(range.getStart(), range.length(),
+                            new ArrayList<>(backEndSorting), inMemorySorting,
+                            filter),
+                    fetchExecutor);
+        }
+
+        CompletableFuture.allOf(sizeFuture, rowsFuture)
+                .whenComplete((ignore, throwable) -> ui.access(() -> {
+                    if (fetchGeneration != generation || !isAttached()) {
+                        // Outdated results, a new fetch has been started
+                        return;
+                    }
+
+                    if (throwable != null) {
+                        previousPushRows = Range.withLength(0, 0);
+                        rpc.reset(0);
+                        // For the session error handler
+                        throw throwable instanceof CompletionException
+                                ? (CompletionException) throwable
+                                : new CompletionException(throwable);
+                    }
+
+                    if (resetSize) {
+                        rpc.reset(sizeFuture.join().intValue());
+                    }
+                    if (!range.isEmpty()) {
+                        pushData(range.getStart(), rowsFuture.join().stream());
+                    }
+                }));
+    }
+
     /**
      * Adds a data generator to this data communicator. Data generators can be
      * used to insert custom data to the rows sent to the client. If the data
@@ -373,6 +491,9 @@ public class DataCommunicator<T> extends AbstractExtension {
      * Informs the DataProvider that the collection has changed.
      */
     public void reset() {
+        // Results of any pending asynchronous fetch are no longer valid
+        generation++;
+
         if (reset) {
             return;
         }
@@ -388,7 +509,7 @@ public class DataCommunicator<T> extends AbstractExtension {
      *            updated data object
      */
     public void refresh(T data) {
-        if (!handler.getActiveData().contains(data)) {
+        if (!handler.isActiveData(data)) {
             // Item is not currently available at the client-side
             return;
         }
@@ -479,6 +600,7 @@ public class DataCommunicator<T> extends AbstractExtension {
         detachDataProviderListener();
         dropAllData();
         this.dataProvider = dataProvider;
+        getKeyMapper().setIdentifierGetter(dataProvider::getId);
 
         /*
          * This introduces behavior which influence on the client-server
@@ -548,6 +670,73 @@ public class DataCommunicator<T> extends AbstractExtension {
         return minPushSize;
     }
 
+    /**
+     * Sets the executor to use for fetching data from a data provider that is
+     * not {@link DataProvider#isInMemory() in memory} asynchronously. When an
+     * executor is set, the back end is queried using
+     * {@link DataProvider#fetchAsync(Query, Executor)} and
+     * {@link DataProvider#sizeAsync(Query, Executor)} without holding
+     * the session lock. The results are sent to the client through
+     * {@link UI#access(Runnable)} once the queries complete, which means that
+     * the UI should use push for the rows to be shown without delay.
+     * <p>
+     * By default no executor is set and data is fetched while the session lock
+     * is held. In-memory data providers are always used synchronously. The
+     * executor is not serialized with the session, so data is again fetched
+     * synchronously after the session has been deserialized until a new
+     * executor is set.
+     *
+     * @since 8.0
+     * @param fetchExecutor
+     *            the executor to run back end queries with, or
+     *            <code>null</code> to fetch data synchronously
+     */
+    public void setFetchExecutor(Executor fetchExecutor) {
+        this.fetchExecutor = fetchExecutor;
+    }
+
+    /**
+     * Gets the executor used for fetching data from a data provider that is
+     * not in memory asynchronously.
+     *
+     * @since 8.0
+     * @see #setFetchExecutor(Executor)
+     * @return the executor to run back end queries with, or <code>null</code>
+     *         if data is fetched synchronously
+     */
+    public Executor getFetchExecutor() {
+        return fetchExecutor;
+    }
+
+    /**
+     * Sets the read-ahead policy that decides which rows to send to the client
+     * when the client requests rows. By default, an
+     * {@link AdaptiveReadAheadPolicy} is used for sending additional rows in
+     * the direction the user is scrolling. Use {@link ReadAheadPolicy#NONE} to
+     * only send the requested rows.
+     *
+     * @since 8.0
+     * @param readAheadPolicy
+     *            the read-ahead policy to use, not <code>null</code>
+     */
+    public void setReadAheadPolicy(ReadAheadPolicy readAheadPolicy) {
+        Objects.requireNonNull(readAheadPolicy,
+                "Read-ahead policy cannot be null");
+        this.readAheadPolicy = readAheadPolicy;
+    }
+
+    /**
+     * Gets the read-ahead policy that decides which rows to send to the client
+     * when the client requests rows.
+     *
+     * @since 8.0
+     * @see #setReadAheadPolicy(ReadAheadPolicy)
+     * @return the read-ahead policy, not <code>null</code>
+     */
+    public ReadAheadPolicy getReadAheadPolicy() {
+        return readAheadPolicy;
+    }
+
     @Override
     protected DataCommunicatorState getState(boolean markAsDirty) {
         return (DataCommunicatorState) super.getState(markAsDirty);
@@ -565,7 +754,7 @@ public class DataCommunicator<T> extends AbstractExtension {
                         if (event instanceof DataRefreshEvent) {
                             T item = ((DataRefreshEvent<T>) event).getItem();
                             generators.forEach(g -> g.refreshData(item));
-                            keyMapper.refresh(item, dataProvider::getId);
+                            keyMapper.refresh(item);
                             refresh(item);
                         } else {
                             reset();
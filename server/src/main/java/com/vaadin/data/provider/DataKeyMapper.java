@@ -38,6 +38,16 @@ public interface DataKeyMapper<T> extends Serializable {
      */
     String key(T dataObject);
 
+    /**
+     * Checks if the given data object is mapped to a key.
+     *
+     * @param dataObject
+     *            the data object to check
+     * @return <code>true</code> if the given data object is mapped to a key,
+     *         <code>false</code> if not
+     */
+    boolean has(T dataObject);
+
     /**
      * Gets the data object identified by given key.
      *
@@ -65,12 +75,22 @@ public interface DataKeyMapper<T> extends Serializable {
     /**
      * Updates any existing mappings of given data object. The equality of two
      * data objects is determined by the equality of their identifiers provided
-     * by the given value provider.
+     * by the identifier getter of this mapper.
+     *
+     * @see #setIdentifierGetter(ValueProvider)
      *
      * @param dataObject
      *            the data object to update
+     */
+    void refresh(T dataObject);
+
+    /**
+     * Sets the function to get an identifier from a data object. Data objects
+     * with equal identifiers are mapped to the same key.
+     *
      * @param identifierGetter
-     *            the function to get an identifier from a data object
+     *            the function to get an identifier from a data object, not
+     *            <code>null</code>
      */
-    void refresh(T dataObject, ValueProvider<T, Object> identifierGetter);
+    void setIdentifierGetter(ValueProvider<T, Object> identifierGetter);
 }
@@ -18,7 +18,10 @@ package com.vaadin.data.provider;
 import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -87,6 +90,55 @@ public interface DataProvider<T, F> extends Serializable {
      */
     Stream<T> fetch(Query<T, F> query);
 
+    /**
+     * Fetches data from this DataProvider asynchronously. The returned future
+     * is completed with the items matching the query once they are available.
+     * <p>
+     * The default implementation runs {@link #fetch(Query)} using the given
+     * executor and collects the items into a list. Data providers backed by an
+     * asynchronous API can override this method to use that API directly.
+     *
+     * @see DataCommunicator#setFetchExecutor(Executor)
+     *
+     * @since 8.0
+     * @param query
+     *            the query that defines sorting, filtering and paging, not
+     *            <code>null</code>
+     * @param executor
+     *            the executor to use for running blocking operations, not
+     *            <code>null</code>
+     * @return a future that completes with the fetched items, not
+     *         <code>null</code>
+     */
+    public default CompletableFuture<List<T>> fetchAsync(Query<T, F> query,
+            Executor executor) {
+        return CompletableFuture.supplyAsync(
+                () -> fetch(query).collect(Collectors.toList()), executor);
+    }
+
+    /**
+     * Gets the amount of data in this DataProvider asynchronously.
+     * <p>
+     * The default implementation runs {@link #size(Query)} using the given
+     * executor. Data providers backed by an asynchronous API can override this
+     * method to use that API directly.
+     *
+     * @see DataCommunicator#setFetchExecutor(Executor)
+     *
+     * @since 8.0
+     * @param query
+     *            the query that defines filtering, not <code>null</code>
+     * @param executor
+     *            the executor to use for running blocking operations, not
+     *            <code>null</code>
+     * @return a future that completes with the number of matching items, not
+     *         <code>null</code>
+     */
+    public default CompletableFuture<Integer> sizeAsync(Query<T, F> query,
+            Executor executor) {
+        return CompletableFuture.supplyAsync(() -> size(query), executor);
+    }
+
     /**
      * Refreshes the given item. This method should be used to inform all
      * {@link DataProviderListener DataProviderListeners} that an item has been
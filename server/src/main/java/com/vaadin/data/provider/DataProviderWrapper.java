@@ -15,7 +15,10 @@
  */
 package com.vaadin.data.provider;
 
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Stream;
 
 import com.vaadin.shared.Registration;
@@ -92,6 +95,22 @@ public abstract class DataProviderWrapper<T, F, M>
                 t.getSortOrders(), t.getInMemorySorting(), getFilter(t)));
     }
 
+    @Override
+    public CompletableFuture<List<T>> fetchAsync(Query<T, F> t,
+            Executor executor) {
+        return dataProvider.fetchAsync(new Query<>(t.getOffset(),
+                t.getLimit(), t.getSortOrders(), t.getInMemorySorting(),
+                getFilter(t)), executor);
+    }
+
+    @Override
+    public CompletableFuture<Integer> sizeAsync(Query<T, F> t,
+            Executor executor) {
+        return dataProvider.sizeAsync(new Query<>(t.getOffset(), t.getLimit(),
+                t.getSortOrders(), t.getInMemorySorting(), getFilter(t)),
+                executor);
+    }
+
     /**
      * Gets the filter that should be used in the modified Query.
      *
@@ -15,11 +15,17 @@
  */
 package com.vaadin.data.provider;
 
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.vaadin.data.ValueProvider;
@@ -27,12 +33,19 @@ import com.vaadin.server.SerializableBiPredicate;
 import com.vaadin.server.SerializableComparator;
 import com.vaadin.server.SerializablePredicate;
 import com.vaadin.server.SerializableSupplier;
+import com.vaadin.server.VaadinService;
 import com.vaadin.shared.data.sort.SortDirection;
 import com.vaadin.ui.UI;
 
 /**
  * {@link DataProvider} wrapper for {@link Collection}s. This class does not
  * actually handle the {@link Query} parameters.
+ * <p>
+ * The filtered and sorted items can optionally be cached, see
+ * {@link #setCachingEnabled(boolean)}.
+ * <p>
+ * Filtering and sorting can optionally be run in parallel for large
+ * collections, see {@link #setParallelThreshold(int)}.
  *
  * @param <T>
  *            data type
@@ -50,18 +63,112 @@ public class ListDataProvider<T>
         }
     };
 
+    private static final SerializableSupplier<ForkJoinPool> SERVICE_POOL_SUPPLIER = () -> {
+        VaadinService service = VaadinService.getCurrent();
+        if (service != null) {
+            return service.getForkJoinPool();
+        } else {
+            return ForkJoinPool.commonPool();
+        }
+    };
+
     private SerializableComparator<T> sortOrder = null;
 
+    private int parallelThreshold = -1;
+
+    private boolean cachingEnabled = false;
+
+    private SerializableSupplier<ForkJoinPool> forkJoinPoolSupplier = SERVICE_POOL_SUPPLIER;
+
     private SerializablePredicate<T> filter;
 
     private final Collection<T> backend;
 
+    private transient volatile Snapshot snapshot;
+
+    /**
+     * Query filter for one filter value of a data provider created by
+     * {@link ListDataProvider#filteringBy(SerializableBiPredicate)}. Filters
+     * for equal filter values are equal, so that cached items can be reused
+     * even though a new filter is created for each query.
+     */
+    private static final class FilterValuePredicate<T, Q>
+            implements SerializablePredicate<T> {
+        private final SerializableBiPredicate<T, Q> predicate;
+        private final Q filterValue;
+
+        private FilterValuePredicate(SerializableBiPredicate<T, Q> predicate,
+                Q filterValue) {
+            this.predicate = predicate;
+            this.filterValue = filterValue;
+        }
+
+        @Override
+        public boolean test(T item) {
+            return predicate.test(item, filterValue);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof FilterValuePredicate)) {
+                return false;
+            }
+            FilterValuePredicate<?, ?> other = (FilterValuePredicate<?, ?>) obj;
+            return predicate == other.predicate
+                    && Objects.equals(filterValue, other.filterValue);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(predicate, filterValue);
+        }
+    }
+
+    /**
+     * Immutable filtered and possibly sorted copy of the backing collection
+     * for one combination of query filter and sorting.
+     */
+    private final class Snapshot implements Serializable {
+        private final SerializablePredicate<T> queryFilter;
+        private final Comparator<T> inMemorySorting;
+        // The comparator the items are sorted with, or null if in backing order
+        private final Comparator<T> sorting;
+        private final int backendSize;
+        private final List<T> items;
+
+        private Snapshot(SerializablePredicate<T> queryFilter,
+                Comparator<T> inMemorySorting, Comparator<T> sorting,
+                int backendSize, List<T> items) {
+            this.queryFilter = queryFilter;
+            this.inMemorySorting = inMemorySorting;
+            this.sorting = sorting;
+            this.backendSize = backendSize;
+            this.items = items;
+        }
+
+        private boolean isFilteredBy(SerializablePredicate<T> queryFilter,
+                int backendSize) {
+            return this.backendSize == backendSize
+                    && Objects.equals(this.queryFilter, queryFilter);
+        }
+
+        private boolean isSortedBy(Comparator<T> inMemorySorting) {
+            if (sorting == null) {
+                // Backing order is only right if there is nothing to sort by
+                return inMemorySorting == null && sortOrder == null;
+            }
+            return this.inMemorySorting == inMemorySorting;
+        }
+    }
+
     /**
      * Constructs a new ListDataProvider.
      * <p>
      * No protective copy is made of the list, and changes in the provided
      * backing Collection will be visible via this data provider. The caller
-     * should copy the list if necessary.
+     * should copy the list if necessary. If
+     * {@link #setCachingEnabled(boolean) caching} is enabled,
+     * {@link #refreshAll()} must be called after changing the collection.
      *
      * @param items
      *            the initial data, not null
@@ -74,18 +181,13 @@ public class ListDataProvider<T>
 
     @Override
     public Stream<T> fetch(Query<T, SerializablePredicate<T>> query) {
-        Stream<T> stream = getFilteredStream(query);
-
-        Optional<Comparator<T>> comparing = Stream
-                .of(query.getInMemorySorting(), sortOrder)
-                .filter(c -> c != null)
-                .reduce((c1, c2) -> c1.thenComparing(c2));
+        List<T> items = getSnapshot(query, true).items;
 
-        if (comparing.isPresent()) {
-            stream = stream.sorted(comparing.get());
-        }
+        int size = items.size();
+        int from = Math.min(query.getOffset(), size);
+        int to = (int) Math.min((long) from + query.getLimit(), size);
 
-        return stream.skip(query.getOffset()).limit(query.getLimit());
+        return items.subList(from, to).stream();
     }
 
     @Override
@@ -95,11 +197,142 @@ public class ListDataProvider<T>
 
     @Override
     public int size(Query<T, SerializablePredicate<T>> query) {
-        return (int) getFilteredStream(query).count();
+        return getSnapshot(query, false).items.size();
     }
 
-    private Stream<T> getFilteredStream(
-            Query<T, SerializablePredicate<T>> query) {
+    @Override
+    public void refreshAll() {
+        snapshot = null;
+        super.refreshAll();
+    }
+
+    @Override
+    public void refreshItem(T item) {
+        // The item may now sort or filter differently
+        snapshot = null;
+        super.refreshItem(item);
+    }
+
+    /**
+     * Sets whether the filtered and sorted items for the most recently used
+     * query filter and in-memory sorting are cached. Caching makes fetching
+     * consecutive ranges of the same data only cost the size of the range,
+     * instead of filtering and sorting the whole collection for each range.
+     * <p>
+     * When caching is enabled, {@link #refreshAll()} must be called after
+     * changing the backing collection or after changing an item in a way that
+     * affects filtering or sorting, since the cache is only discarded
+     * automatically if the size of the collection changes. Query filters are
+     * considered the same if they are equal, so filters should have an
+     * <code>equals</code> implementation, or the same filter instance should
+     * be reused, for the cache to be effective. The filters created by the
+     * <code>filteringBy</code> methods are equal for equal filter values.
+     * <p>
+     * Caching is disabled by default.
+     *
+     * @since 8.0
+     * @param cachingEnabled
+     *            <code>true</code> to cache the filtered and sorted items,
+     *            <code>false</code> to filter and sort for each query
+     */
+    public void setCachingEnabled(boolean cachingEnabled) {
+        this.cachingEnabled = cachingEnabled;
+        snapshot = null;
+    }
+
+    /**
+     * Gets whether the filtered and sorted items are cached.
+     *
+     * @since 8.0
+     * @see #setCachingEnabled(boolean)
+     * @return <code>true</code> if the items are cached, otherwise
+     *         <code>false</code>
+     */
+    public boolean isCachingEnabled() {
+        return cachingEnabled;
+    }
+
+    /**
+     * Gets the cached snapshot matching the given query, updating the cache if
+     * necessary. If caching is disabled, a new snapshot is always created.
+     *
+     * @param query
+     *            the query to get items for, not <code>null</code>
+     * @param sort
+     *            <code>true</code> if the items should be in the order defined
+     *            by the query and the default sorting, <code>false</code> if
+     *            any order will do
+     * @return a snapshot of the items for the query, not <code>null</code>
+     */
+    private Snapshot getSnapshot(Query<T, SerializablePredicate<T>> query,
+            boolean sort) {
+        SerializablePredicate<T> queryFilter = query.getFilter().orElse(null);
+        Comparator<T> inMemorySorting = query.getInMemorySorting();
+        int backendSize = backend.size();
+
+        Snapshot current = cachingEnabled ? snapshot : null;
+        if (current != null && current.isFilteredBy(queryFilter, backendSize)
+                && (!sort || current.isSortedBy(inMemorySorting))) {
+            return current;
+        }
+
+        List<T> items;
+        if (current != null && current.isFilteredBy(queryFilter, backendSize)
+                && current.sorting == null) {
+            // Reuse the already filtered items, only the sorting is missing
+            items = current.items;
+        } else {
+            items = filterItems(queryFilter, backendSize);
+        }
+
+        Comparator<T> sorting = null;
+        if (sort) {
+            sorting = Stream.of(inMemorySorting, sortOrder)
+                    .filter(c -> c != null)
+                    .reduce((c1, c2) -> c1.thenComparing(c2)).orElse(null);
+            if (sorting != null) {
+                items = sortItems(items, sorting);
+            }
+        }
+
+        current = new Snapshot(queryFilter, inMemorySorting, sorting,
+                backendSize, Collections.unmodifiableList(items));
+        if (cachingEnabled) {
+            snapshot = current;
+        }
+        return current;
+    }
+
+    private List<T> filterItems(SerializablePredicate<T> queryFilter,
+            int backendSize) {
+        if (isParallel(backendSize)) {
+            return forkJoinPoolSupplier.get()
+                    .submit(() -> getFilteredStream(queryFilter).parallel()
+                            .collect(Collectors.toCollection(ArrayList::new)))
+                    .join();
+        }
+        return getFilteredStream(queryFilter)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private List<T> sortItems(List<T> items, Comparator<T> sorting) {
+        if (isParallel(items.size())) {
+            // A parallel stream runs in the pool of the task that uses it
+            return forkJoinPoolSupplier.get()
+                    .submit(() -> items.parallelStream().sorted(sorting)
+                            .collect(Collectors.toCollection(ArrayList::new)))
+                    .join();
+        }
+        List<T> sorted = new ArrayList<>(items);
+        sorted.sort(sorting);
+        return sorted;
+    }
+
+    private boolean isParallel(int size) {
+        return parallelThreshold >= 0 && size >= parallelThreshold;
+    }
+
+    private Stream<T> getFilteredStream(SerializablePredicate<T> queryFilter) {
         Stream<T> stream = backend.stream();
 
         // Apply our own filters first so that query filters never see the items
@@ -108,11 +341,66 @@ public class ListDataProvider<T>
             stream = stream.filter(filter);
         }
 
-        stream = query.getFilter().map(stream::filter).orElse(stream);
+        if (queryFilter != null) {
+            stream = stream.filter(queryFilter);
+        }
 
         return stream;
     }
 
+    /**
+     * Sets the number of items from which filtering and sorting is run in
+     * parallel. Filtering runs in parallel if the backing collection has at
+     * least this many items and sorting runs in parallel if at least this many
+     * items pass the filters. The work is run in the pool provided by
+     * {@link #setForkJoinPoolSupplier(SerializableSupplier)}.
+     * <p>
+     * Parallel processing is disabled by default. It is only worth enabling
+     * for collections with a very large number of items, since the overhead of
+     * splitting up the work otherwise outweighs the benefits. All filters and
+     * comparators must be safe to call from multiple threads concurrently when
+     * this is enabled.
+     *
+     * @since 8.0
+     * @param parallelThreshold
+     *            the minimum number of items to process in parallel, or a
+     *            negative number to always process the items sequentially
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Gets the number of items from which filtering and sorting is run in
+     * parallel.
+     *
+     * @since 8.0
+     * @see #setParallelThreshold(int)
+     * @return the minimum number of items to process in parallel, or a
+     *         negative number if items are always processed sequentially
+     */
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Sets the supplier of the fork-join pool to use for filtering and sorting
+     * in parallel. By default, the {@link VaadinService#getForkJoinPool() pool
+     * of the current service} is used if available, and otherwise the
+     * {@link ForkJoinPool#commonPool() common pool}.
+     *
+     * @since 8.0
+     * @see #setParallelThreshold(int)
+     * @param forkJoinPoolSupplier
+     *            the fork-join pool supplier to use, not <code>null</code>
+     */
+    public void setForkJoinPoolSupplier(
+            SerializableSupplier<ForkJoinPool> forkJoinPoolSupplier) {
+        Objects.requireNonNull(forkJoinPoolSupplier,
+                "Fork-join pool supplier cannot be null");
+        this.forkJoinPoolSupplier = forkJoinPoolSupplier;
+    }
+
     /**
      * Sets the comparator to use as the default sorting for this data provider.
      * This overrides the sorting set by any other method that manipulates the
@@ -403,7 +691,8 @@ public class ListDataProvider<T>
         Objects.requireNonNull(predicate, "Predicate cannot be null");
 
         return withConvertedFilter(
-                filterValue -> item -> predicate.test(item, filterValue));
+                filterValue -> new FilterValuePredicate<>(predicate,
+                        filterValue));
     }
 
     /**
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.data.provider;
+
+import java.io.Serializable;
+
+import com.vaadin.shared.Range;
+
+/**
+ * A policy used by {@link DataCommunicator} for deciding which rows to fetch
+ * and send to the client when the client requests some rows. Sending more
+ * rows than requested in the direction the user is scrolling saves round trips
+ * when the client needs those rows later on.
+ *
+ * @see DataCommunicator#setReadAheadPolicy(ReadAheadPolicy)
+ * @see AdaptiveReadAheadPolicy
+ *
+ * @author Vaadin Ltd.
+ * @since 8.0
+ */
+@FunctionalInterface
+public interface ReadAheadPolicy extends Serializable {
+
+    /**
+     * A policy that sends exactly the rows requested by the client.
+     */
+    public static final ReadAheadPolicy NONE = (requestedRange,
+            previousRange) -> requestedRange;
+
+    /**
+     * Gets the range of rows to fetch and send to the client.
+     *
+     * @param requestedRange
+     *            the range of rows requested by the client, not
+     *            <code>null</code>
+     * @param previousRange
+     *            the range of rows sent in the previous response, or an empty
+     *            range if no rows have been sent since the data was last reset,
+     *            not <code>null</code>
+     * @return the range of rows to send, containing at least the requested
+     *         range and not starting before 0, not <code>null</code>
+     */
+    Range getRangeToPush(Range requestedRange, Range previousRange);
+}
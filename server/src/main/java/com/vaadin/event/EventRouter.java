@@ -20,10 +20,14 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EventObject;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.logging.Logger;
 
 import com.vaadin.server.ErrorEvent;
@@ -46,6 +50,20 @@ public class EventRouter implements MethodEventSource {
      */
     private LinkedHashSet<ListenerMethod> listenerList = null;
 
+    /**
+     * The listeners matching each fired event class, in registration order.
+     * The arrays are never modified but the whole cache is discarded whenever
+     * the listeners change, so an array can be iterated while firing an event
+     * even if listeners are added or removed by the listeners themselves.
+     */
+    private transient Map<Class<?>, ListenerMethod[]> listenersByEventClass;
+
+    /**
+     * The event types of all registered listeners, or <code>null</code> if not
+     * yet resolved after the listeners last changed.
+     */
+    private transient Set<Class<?>> eventTypes;
+
     /*
      * Registers a new listener with the specified activation method to listen
      * events generated by this component. Don't add a JavaDoc comment here, we
@@ -60,8 +78,14 @@ public class EventRouter implements MethodEventSource {
         }
         ListenerMethod listenerMethod = new ListenerMethod(eventType, object,
                 method);
-        listenerList.add(listenerMethod);
-        return () -> listenerList.remove(listenerMethod);
+        if (listenerList.add(listenerMethod)) {
+            listenersChanged();
+        }
+        return () -> {
+            if (listenerList != null && listenerList.remove(listenerMethod)) {
+                listenersChanged();
+            }
+        };
     }
 
     /*
@@ -78,8 +102,14 @@ public class EventRouter implements MethodEventSource {
         }
         ListenerMethod listenerMethod = new ListenerMethod(eventType, object,
                 methodName);
-        listenerList.add(listenerMethod);
-        return () -> listenerList.remove(listenerMethod);
+        if (listenerList.add(listenerMethod)) {
+            listenersChanged();
+        }
+        return () -> {
+            if (listenerList != null && listenerList.remove(listenerMethod)) {
+                listenersChanged();
+            }
+        };
     }
 
     /*
@@ -95,6 +125,7 @@ public class EventRouter implements MethodEventSource {
                 final ListenerMethod lm = i.next();
                 if (lm.matches(eventType, target)) {
                     i.remove();
+                    listenersChanged();
                     return;
                 }
             }
@@ -115,6 +146,7 @@ public class EventRouter implements MethodEventSource {
                 final ListenerMethod lm = i.next();
                 if (lm.matches(eventType, target, method)) {
                     i.remove();
+                    listenersChanged();
                     return;
                 }
             }
@@ -149,6 +181,7 @@ public class EventRouter implements MethodEventSource {
                 final ListenerMethod lm = i.next();
                 if (lm.matches(eventType, target, method)) {
                     i.remove();
+                    listenersChanged();
                     return;
                 }
             }
@@ -161,6 +194,7 @@ public class EventRouter implements MethodEventSource {
      */
     public void removeAllListeners() {
         listenerList = null;
+        listenersChanged();
     }
 
     /**
@@ -193,22 +227,20 @@ public class EventRouter implements MethodEventSource {
         // It is not necessary to send any events if there are no listeners
         if (listenerList != null) {
 
-            // Make a copy of the listener list to allow listeners to be added
-            // inside listener methods. Fixes #3605.
-
-            // Send the event to all listeners. The listeners themselves
-            // will filter out unwanted events.
-            final Object[] listeners = listenerList.toArray();
+            // The cached array is not modified if listeners are added or
+            // removed inside listener methods. Fixes #3605.
+            final ListenerMethod[] listeners = getListenerMethods(
+                    event.getClass());
             for (int i = 0; i < listeners.length; i++) {
-                ListenerMethod listenerMethod = (ListenerMethod) listeners[i];
+                ListenerMethod listenerMethod = listeners[i];
                 if (null != errorHandler) {
                     try {
-                        listenerMethod.receiveEvent(event);
+                        listenerMethod.invoke(event);
                     } catch (Exception e) {
                         errorHandler.error(new ErrorEvent(e));
                     }
                 } else {
-                    listenerMethod.receiveEvent(event);
+                    listenerMethod.invoke(event);
                 }
             }
 
@@ -224,14 +256,17 @@ public class EventRouter implements MethodEventSource {
      * @return true if a listener is registered for the given event type
      */
     public boolean hasListeners(Class<?> eventType) {
-        if (listenerList != null) {
+        if (listenerList == null) {
+            return false;
+        }
+        if (eventTypes == null) {
+            Set<Class<?>> types = new HashSet<>();
             for (ListenerMethod lm : listenerList) {
-                if (lm.isType(eventType)) {
-                    return true;
-                }
+                types.add(lm.getEventType());
             }
+            eventTypes = types;
         }
-        return false;
+        return eventTypes.contains(eventType);
     }
 
     /**
@@ -254,6 +289,38 @@ public class EventRouter implements MethodEventSource {
         return listeners;
     }
 
+    /**
+     * Gets the listeners that should receive events of the given class, in
+     * registration order. The listeners are resolved once for each event class
+     * and cached until the listeners change.
+     *
+     * @param eventClass
+     *            the class of the fired event
+     * @return an array of matching listeners, not to be modified
+     */
+    private ListenerMethod[] getListenerMethods(Class<?> eventClass) {
+        if (listenersByEventClass == null) {
+            listenersByEventClass = new HashMap<>();
+        }
+        ListenerMethod[] listeners = listenersByEventClass.get(eventClass);
+        if (listeners == null) {
+            List<ListenerMethod> matching = new ArrayList<>();
+            for (ListenerMethod lm : listenerList) {
+                if (lm.getEventType().isAssignableFrom(eventClass)) {
+                    matching.add(lm);
+                }
+            }
+            listeners = matching.toArray(new ListenerMethod[matching.size()]);
+            listenersByEventClass.put(eventClass, listeners);
+        }
+        return listeners;
+    }
+
+    private void listenersChanged() {
+        listenersByEventClass = null;
+        eventTypes = null;
+    }
+
     private Logger getLogger() {
         return Logger.getLogger(EventRouter.class.getName());
     }
@@ -26,6 +26,8 @@ import java.util.EventObject;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import com.vaadin.util.MethodInvoker;
+
 /**
  * <p>
  * One registered event listener. This class contains the listener object
@@ -70,6 +72,12 @@ public class ListenerMethod implements EventListener, Serializable {
      */
     private transient Method method;
 
+    /**
+     * The invoker for the trigger method, created when the first event is
+     * received.
+     */
+    private transient MethodInvoker invoker;
+
     /**
      * Optional argument set to pass to the trigger method.
      */
@@ -504,32 +512,48 @@ public class ListenerMethod implements EventListener, Serializable {
     public void receiveEvent(EventObject event) {
         // Only send events supported by the method
         if (eventType.isAssignableFrom(event.getClass())) {
-            try {
-                if (eventArgumentIndex >= 0) {
-                    if (eventArgumentIndex == 0 && arguments.length == 1) {
-                        method.invoke(target, event);
-                    } else {
-                        final Object[] arg = new Object[arguments.length];
-                        System.arraycopy(arguments, 0, arg, 0, arg.length);
-                        arg[eventArgumentIndex] = event;
-                        method.invoke(target, arg);
-                    }
+            invoke(event);
+        }
+    }
+
+    /**
+     * Calls the trigger method without checking the type of the event. Used by
+     * {@link EventRouter}, which only passes events to the listeners whose
+     * event type it has already matched.
+     *
+     * @param event
+     *            the fired event, assignable to the event type of this
+     *            listener
+     */
+    void invoke(EventObject event) {
+        if (invoker == null) {
+            invoker = MethodInvoker.forMethod(method);
+        }
+        try {
+            if (eventArgumentIndex >= 0) {
+                if (eventArgumentIndex == 0 && arguments.length == 1) {
+                    invoker.invoke(target, event);
                 } else {
-                    method.invoke(target, arguments);
+                    final Object[] arg = new Object[arguments.length];
+                    System.arraycopy(arguments, 0, arg, 0, arg.length);
+                    arg[eventArgumentIndex] = event;
+                    invoker.invoke(target, arg);
                 }
-
-            } catch (final java.lang.IllegalAccessException e) {
-                // This should never happen
-                throw new java.lang.RuntimeException(
-                        "Internal error - please report", e);
-            } catch (final java.lang.reflect.InvocationTargetException e) {
-                // An exception was thrown by the invocation target. Throw it
-                // forwards.
-                throw new MethodException(
-                        "Invocation of method " + method.getName() + " in "
-                                + target.getClass().getName() + " failed.",
-                        e.getTargetException());
+            } else {
+                invoker.invoke(target, arguments);
             }
+
+        } catch (final java.lang.IllegalAccessException e) {
+            // This should never happen
+            throw new java.lang.RuntimeException(
+                    "Internal error - please report", e);
+        } catch (final java.lang.reflect.InvocationTargetException e) {
+            // An exception was thrown by the invocation target. Throw it
+            // forwards.
+            throw new MethodException(
+                    "Invocation of method " + method.getName() + " in "
+                            + target.getClass().getName() + " failed.",
+                    e.getTargetException());
         }
     }
 
@@ -654,6 +678,15 @@ public class ListenerMethod implements EventListener, Serializable {
         return eventType.isAssignableFrom(this.eventType);
     }
 
+    /**
+     * Gets the type of the events this listener listens to.
+     *
+     * @return the event type
+     */
+    Class<?> getEventType() {
+        return eventType;
+    }
+
     /**
      * Returns the target object which contains the trigger method.
      *
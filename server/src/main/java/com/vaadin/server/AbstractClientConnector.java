@@ -21,7 +21,9 @@ import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EventObject;
@@ -36,6 +38,7 @@ import java.util.logging.Logger;
 import com.vaadin.event.EventRouter;
 import com.vaadin.event.MethodEventSource;
 import com.vaadin.shared.Registration;
+import com.vaadin.shared.annotations.Delayed;
 import com.vaadin.shared.communication.ClientRpc;
 import com.vaadin.shared.communication.ServerRpc;
 import com.vaadin.shared.communication.SharedState;
@@ -96,6 +99,8 @@ public abstract class AbstractClientConnector
 
     private static final ConcurrentHashMap<Class<? extends AbstractClientConnector>, Class<? extends SharedState>> stateTypeCache = new ConcurrentHashMap<>();
 
+    private static final ConcurrentHashMap<Method, Boolean> lastOnlyCache = new ConcurrentHashMap<>();
+
     @Override
     public Registration addAttachListener(AttachListener listener) {
         return addListener(AttachEvent.ATTACH_EVENT_IDENTIFIER,
@@ -399,6 +404,9 @@ public abstract class AbstractClientConnector
 
     /**
      * For internal use: adds a method invocation to the pending RPC call queue.
+     * If the method is annotated with {@link Delayed#lastOnly()
+     * <code>@Delayed(lastOnly = true)</code>}, any previous invocations of the
+     * same method in the queue are removed.
      *
      * @param interfaceName
      *            RPC interface name
@@ -411,6 +419,15 @@ public abstract class AbstractClientConnector
      */
     protected void addMethodInvocationToQueue(String interfaceName,
             Method method, Object[] parameters) {
+        if (isLastOnly(method)) {
+            // Only the last value is of interest to the client
+            Type[] parameterTypes = method.getGenericParameterTypes();
+            pendingInvocations.removeIf(invocation -> invocation
+                    .getInterfaceName().equals(interfaceName)
+                    && invocation.getMethodName().equals(method.getName())
+                    && Arrays.equals(invocation.getParameterTypes(),
+                            parameterTypes));
+        }
         // add to queue
         pendingInvocations.add(new ClientMethodInvocation(this, interfaceName,
                 method, parameters));
@@ -418,6 +435,13 @@ public abstract class AbstractClientConnector
         requestRepaint();
     }
 
+    private static boolean isLastOnly(Method method) {
+        return lastOnlyCache.computeIfAbsent(method, m -> {
+            Delayed delayed = m.getAnnotation(Delayed.class);
+            return delayed != null && delayed.lastOnly();
+        });
+    }
+
     @Override
     public ServerRpcManager<?> getRpcManager(String rpcInterfaceName) {
         return rpcManagerMap.get(rpcInterfaceName);
@@ -606,6 +606,37 @@ public abstract class BootstrapHandler extends SynchronizedRequestHandler {
         builder.append(");\n");
     }
 
+    /**
+     * Adds content hashes from the build time resource manifests to the URLs
+     * of the theme and the widgetset. Browsers can cache the versioned URLs
+     * without revalidation since the URL changes whenever the content changes.
+     */
+    private static void addStaticResourceVersions(JsonObject appConfig,
+            VaadinService vaadinService, String themeName,
+            WidgetsetInfo widgetsetInfo, String vaadinDir) {
+        if (themeName != null) {
+            String themeHash = vaadinService.getStaticResourceHash(
+                    "/VAADIN/themes/" + themeName + "/styles.css");
+            if (themeHash != null) {
+                appConfig.put("themeVersion", themeHash);
+            }
+        }
+
+        if (widgetsetInfo.getWidgetsetUrl() == null) {
+            String widgetset = VaadinServlet
+                    .stripSpecialChars(widgetsetInfo.getWidgetsetName());
+            String widgetsetPath = "widgetsets/" + widgetset + "/" + widgetset
+                    + ".nocache.js";
+            String widgetsetHash = vaadinService
+                    .getStaticResourceHash("/VAADIN/" + widgetsetPath);
+            if (widgetsetHash != null) {
+                appConfig.put("widgetsetUrl", vaadinDir + widgetsetPath + "?"
+                        + VaadinServlet.RESOURCE_VERSION_PARAMETER + "="
+                        + widgetsetHash);
+            }
+        }
+    }
+
     private static void appendJsonObject(StringBuilder builder,
             JsonObject jsonObject, boolean isDebug) {
         if (isDebug) {
@@ -697,6 +728,11 @@ public abstract class BootstrapHandler extends SynchronizedRequestHandler {
                 + "/VAADIN/";
         appConfig.put(ApplicationConstants.VAADIN_DIR_URL, vaadinDir);
 
+        if (session.getConfiguration().isProductionMode()) {
+            addStaticResourceVersions(appConfig, vaadinService, themeName,
+                    widgetsetInfo, vaadinDir);
+        }
+
         if (!session.getConfiguration().isProductionMode()) {
             appConfig.put("debug", true);
         }
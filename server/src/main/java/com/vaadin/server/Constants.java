@@ -116,6 +116,24 @@ public interface Constants {
     static final String SERVLET_PARAMETER_SYNC_ID_CHECK = "syncIdCheck";
     static final String SERVLET_PARAMETER_SENDURLSASPARAMETERS = "sendUrlsAsParameters";
     static final String SERVLET_PARAMETER_PUSH_SUSPEND_TIMEOUT_LONGPOLLING = "pushLongPollingSuspendTimeout";
+    /**
+     * Name of the servlet parameter that sets the maximum number of bytes of
+     * static resources to cache in memory in production mode. Caching is
+     * disabled if the value is 0.
+     *
+     * @since 8.0
+     */
+    static final String SERVLET_PARAMETER_STATIC_RESOURCE_CACHE_SIZE = "staticResourceCacheSize";
+    /**
+     * Name of the servlet parameter that sets the number of seconds between
+     * runs of the session reaper, which closes inactive UIs and removes closed
+     * UIs in all sessions of a service. The reaper is disabled if the value is
+     * 0. The reaper is run using the executor created by
+     * {@link VaadinService#createSessionReaperExecutor()}.
+     *
+     * @since 8.0
+     */
+    static final String SERVLET_PARAMETER_SESSION_REAPER_INTERVAL = "sessionReaperInterval";
     /**
      * Name of system or context property to write declarative syntax with the
      * old "v-" prefix or with the new "vaadin-" prefix. The default value
@@ -131,6 +149,8 @@ public interface Constants {
 
     static final int DEFAULT_BUFFER_SIZE = 32 * 1024;
 
+    static final long DEFAULT_STATIC_RESOURCE_CACHE_SIZE = 32 * 1024 * 1024;
+
     static final int MAX_BUFFER_SIZE = 64 * 1024;
 
     final String THEME_DIR_PATH = "VAADIN/themes";
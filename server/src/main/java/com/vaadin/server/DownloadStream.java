@@ -54,6 +54,11 @@ public class DownloadStream implements Serializable {
      */
     public static final long DEFAULT_CACHETIME = 1000 * 60 * 60 * 24;
 
+    /**
+     * Marker for a range request that cannot be satisfied.
+     */
+    private static final long[] UNSATISFIABLE_RANGE = new long[0];
+
     private InputStream stream;
 
     private String contentType;
@@ -238,6 +243,12 @@ public class DownloadStream implements Serializable {
      * response. If there's is a parameter named <code>Location</code>, a
      * redirect (302 Moved temporarily) is sent instead of the contents of this
      * stream.
+     * <p>
+     * If the length of the stream is known through a
+     * <code>Content-Length</code> parameter, a single byte range requested
+     * using a <code>Range</code> header is served as a partial (206) response.
+     * An <code>If-Range</code> header is compared to the <code>ETag</code> and
+     * <code>Last-Modified</code> parameters.
      *
      * @param request
      *            the request for which the response should be written
@@ -268,6 +279,20 @@ public class DownloadStream implements Serializable {
 
             OutputStream out = null;
             try {
+                long contentLength = getContentLength();
+                long[] range = null;
+                if (contentLength >= 0) {
+                    response.setHeader("Accept-Ranges", "bytes");
+                    range = getRequestedRange(request, contentLength);
+                    if (range == UNSATISFIABLE_RANGE) {
+                        response.setStatus(
+                                HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                        response.setHeader("Content-Range",
+                                "bytes */" + contentLength);
+                        return;
+                    }
+                }
+
                 // Sets content type
                 response.setContentType(getContentType());
 
@@ -293,25 +318,22 @@ public class DownloadStream implements Serializable {
 
                 response.setHeader(CONTENT_DISPOSITION, contentDisposition);
 
-                int bufferSize = getBufferSize();
-                if (bufferSize <= 0 || bufferSize > Constants.MAX_BUFFER_SIZE) {
-                    bufferSize = Constants.DEFAULT_BUFFER_SIZE;
+                long start = 0;
+                long count = -1;
+                if (range != null) {
+                    start = range[0];
+                    count = range[1] - range[0] + 1;
+                    response.setStatus(
+                            HttpServletResponse.SC_PARTIAL_CONTENT);
+                    response.setHeader("Content-Range", "bytes " + range[0]
+                            + "-" + range[1] + "/" + contentLength);
+                    response.setHeader("Content-Length",
+                            String.valueOf(count));
                 }
-                final byte[] buffer = new byte[bufferSize];
-                int bytesRead = 0;
 
                 out = response.getOutputStream();
 
-                long totalWritten = 0;
-                while ((bytesRead = data.read(buffer)) > 0) {
-                    out.write(buffer, 0, bytesRead);
-
-                    totalWritten += bytesRead;
-                    if (totalWritten >= buffer.length) {
-                        // Avoid chunked encoding for small resources
-                        out.flush();
-                    }
-                }
+                copyStream(data, out, start, count);
             } finally {
                 tryToCloseStream(out);
                 tryToCloseStream(data);
@@ -319,6 +341,142 @@ public class DownloadStream implements Serializable {
         }
     }
 
+    private void copyStream(InputStream data, OutputStream out, long start,
+            long count) throws IOException {
+        int bufferSize = getBufferSize();
+        if (bufferSize <= 0 || bufferSize > Constants.MAX_BUFFER_SIZE) {
+            bufferSize = Constants.DEFAULT_BUFFER_SIZE;
+        }
+        final byte[] buffer = new byte[bufferSize];
+        int bytesRead = 0;
+
+        long toSkip = start;
+        while (toSkip > 0) {
+            long skipped = data.skip(toSkip);
+            if (skipped <= 0) {
+                // skip may return 0 also before the end of the stream
+                if (data.read() < 0) {
+                    return;
+                }
+                skipped = 1;
+            }
+            toSkip -= skipped;
+        }
+
+        long remaining = count < 0 ? Long.MAX_VALUE : count;
+        long totalWritten = 0;
+        while (remaining > 0 && (bytesRead = data.read(buffer, 0,
+                (int) Math.min(buffer.length, remaining))) > 0) {
+            out.write(buffer, 0, bytesRead);
+
+            remaining -= bytesRead;
+            totalWritten += bytesRead;
+            if (totalWritten >= buffer.length) {
+                // Avoid chunked encoding for small resources
+                out.flush();
+            }
+        }
+    }
+
+    /**
+     * Gets the length of the stream from the <code>Content-Length</code>
+     * parameter.
+     *
+     * @return the length of the stream, or -1 if not known
+     */
+    private long getContentLength() {
+        String contentLength = getParameter("Content-Length");
+        if (contentLength != null) {
+            try {
+                return Long.parseLong(contentLength.trim());
+            } catch (NumberFormatException e) {
+                // Length is unknown
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the byte range requested using the <code>Range</code> header of the
+     * request, taking a possible <code>If-Range</code> header into account.
+     *
+     * @param request
+     *            the request
+     * @param contentLength
+     *            the length of the stream
+     * @return an array with the first and last position of the range,
+     *         {@link #UNSATISFIABLE_RANGE} if the requested range cannot be
+     *         served or <code>null</code> if the whole stream should be sent
+     */
+    private long[] getRequestedRange(VaadinRequest request,
+            long contentLength) {
+        if (!"GET".equals(request.getMethod())) {
+            return null;
+        }
+        String rangeHeader = request.getHeader("Range");
+        if (rangeHeader == null) {
+            return null;
+        }
+        String ifRange = request.getHeader("If-Range");
+        if (ifRange != null && !ifRange.equals(getParameter("ETag"))
+                && !ifRange.equals(getParameter("Last-Modified"))) {
+            // The resource has changed, send everything
+            return null;
+        }
+        return parseRange(rangeHeader, contentLength);
+    }
+
+    /**
+     * Parses the value of a <code>Range</code> header. Only a single range is
+     * supported, for any other requests the whole stream is sent.
+     *
+     * @param rangeHeader
+     *            the value of the range header
+     * @param contentLength
+     *            the length of the stream
+     * @return an array with the first and last position of the range,
+     *         {@link #UNSATISFIABLE_RANGE} if the range is outside the stream
+     *         or <code>null</code> if the header is ignored
+     */
+    static long[] parseRange(String rangeHeader, long contentLength) {
+        String value = rangeHeader.trim();
+        if (!value.regionMatches(true, 0, "bytes=", 0, 6)) {
+            return null;
+        }
+        value = value.substring(6).trim();
+        int dash = value.indexOf('-');
+        if (dash < 0 || value.indexOf(',') >= 0) {
+            return null;
+        }
+
+        try {
+            String first = value.substring(0, dash).trim();
+            String last = value.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range, e.g. the last 500 bytes
+                long suffixLength = Long.parseLong(last);
+                if (suffixLength <= 0 || contentLength == 0) {
+                    return UNSATISFIABLE_RANGE;
+                }
+                return new long[] {
+                        Math.max(0, contentLength - suffixLength),
+                        contentLength - 1 };
+            }
+
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            if (start < 0 || end < start) {
+                return null;
+            }
+            if (start >= contentLength) {
+                return UNSATISFIABLE_RANGE;
+            }
+            return new long[] { start, Math.min(end, contentLength - 1) };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     /**
      * Returns the filename formatted for inclusion in a Content-Disposition
      * header. Includes both a plain version of the name and a UTF-8 version
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A thread safe histogram of durations. Durations are counted in buckets where
+ * the upper bound of each bucket is twice the upper bound of the previous
+ * bucket, which keeps the overhead of recording a duration low while still
+ * giving a useful picture of the distribution.
+ *
+ * @author Vaadin Ltd
+ * @since 8.0
+ */
+public class DurationHistogram implements Serializable {
+
+    /**
+     * The number of buckets, enough for any non-negative long value.
+     */
+    public static final int BUCKET_COUNT = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a duration.
+     *
+     * @param nanos
+     *            the duration in nanoseconds, negative values are counted as
+     *            zero
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        buckets.incrementAndGet(getBucket(nanos));
+        count.incrementAndGet();
+        total.addAndGet(nanos);
+
+        long currentMax = max.get();
+        while (nanos > currentMax && !max.compareAndSet(currentMax, nanos)) {
+            currentMax = max.get();
+        }
+    }
+
+    /**
+     * Gets the number of recorded durations.
+     *
+     * @return the number of recorded durations
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Gets the sum of all recorded durations.
+     *
+     * @return the total duration in nanoseconds
+     */
+    public long getTotalNanos() {
+        return total.get();
+    }
+
+    /**
+     * Gets the longest recorded duration.
+     *
+     * @return the longest duration in nanoseconds, or 0 if nothing has been
+     *         recorded
+     */
+    public long getMaxNanos() {
+        return max.get();
+    }
+
+    /**
+     * Gets the average of the recorded durations.
+     *
+     * @return the average duration in nanoseconds, or 0 if nothing has been
+     *         recorded
+     */
+    public long getAverageNanos() {
+        long c = getCount();
+        return c == 0 ? 0 : getTotalNanos() / c;
+    }
+
+    /**
+     * Gets an estimate for the given percentile of the recorded durations. The
+     * estimate is the upper bound of the bucket containing the percentile,
+     * limited to the longest recorded duration.
+     *
+     * @param percentile
+     *            the percentile, between 0 and 100
+     * @return the estimated duration in nanoseconds, or 0 if nothing has been
+     *         recorded
+     */
+    public long getPercentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException(
+                    "Percentile must be between 0 and 100");
+        }
+        long[] counts = getBucketCounts();
+        long recorded = 0;
+        for (long bucketCount : counts) {
+            recorded += bucketCount;
+        }
+        if (recorded == 0) {
+            return 0;
+        }
+
+        long target = (long) Math.ceil(recorded * percentile / 100);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target && seen > 0) {
+                return Math.min(getBucketUpperBound(i), getMaxNanos());
+            }
+        }
+        return getMaxNanos();
+    }
+
+    /**
+     * Gets the number of recorded durations in each bucket. The upper bound
+     * of each bucket is given by {@link #getBucketUpperBound(int)}.
+     *
+     * @return an array with the count for each bucket
+     */
+    public long[] getBucketCounts() {
+        long[] counts = new long[BUCKET_COUNT];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the largest duration that is counted in the given bucket.
+     *
+     * @param bucket
+     *            the index of the bucket
+     * @return the upper bound of the bucket in nanoseconds
+     */
+    public static long getBucketUpperBound(int bucket) {
+        if (bucket >= BUCKET_COUNT - 1) {
+            return Long.MAX_VALUE;
+        }
+        return (1L << bucket) - 1;
+    }
+
+    private static int getBucket(long nanos) {
+        return BUCKET_COUNT - Long.numberOfLeadingZeros(nanos);
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + getCount() + ", avg=" + getAverageNanos()
+                + "ns, p50=" + getPercentileNanos(50) + "ns, p99="
+                + getPercentileNanos(99) + "ns, max=" + getMaxNanos() + "ns";
+    }
+}
@@ -19,6 +19,10 @@ package com.vaadin.server;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
 
 import com.vaadin.util.FileTypeResolver;
 
@@ -34,6 +38,9 @@ import com.vaadin.util.FileTypeResolver;
 @SuppressWarnings("serial")
 public class FileResource implements ConnectorResource {
 
+    private static final DateTimeFormatter HTTP_DATE_FORMAT = DateTimeFormatter
+            .ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.ENGLISH);
+
     /**
      * Default buffer size for this stream resource.
      */
@@ -71,6 +78,11 @@ public class FileResource implements ConnectorResource {
                     getFilename());
             ds.setParameter("Content-Length",
                     String.valueOf(sourceFile.length()));
+            // Used for validating If-Range headers of partial requests
+            ds.setParameter("Last-Modified",
+                    HTTP_DATE_FORMAT.format(Instant
+                            .ofEpochMilli(sourceFile.lastModified())
+                            .atOffset(ZoneOffset.UTC)));
 
             ds.setCacheTime(cacheTime);
             return ds;
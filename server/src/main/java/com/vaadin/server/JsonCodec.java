@@ -20,6 +20,9 @@ import java.beans.IntrospectionException;
 import java.beans.Introspector;
 import java.beans.PropertyDescriptor;
 import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.GenericArrayType;
@@ -119,6 +122,10 @@ public class JsonCodec implements Serializable {
             return field.get(bean);
         }
 
+        public MethodHandle getGetterHandle() throws IllegalAccessException {
+            return MethodHandles.publicLookup().unreflectGetter(field);
+        }
+
         @Override
         public void setValue(Object bean, Object value) throws Exception {
             field.set(bean, value);
@@ -163,6 +170,10 @@ public class JsonCodec implements Serializable {
             return readMethod.invoke(bean);
         }
 
+        public MethodHandle getGetterHandle() throws IllegalAccessException {
+            return MethodHandles.publicLookup().unreflect(pd.getReadMethod());
+        }
+
         @Override
         public void setValue(Object bean, Object value) throws Exception {
             pd.getWriteMethod().invoke(bean, value);
@@ -198,6 +209,164 @@ public class JsonCodec implements Serializable {
 
     }
 
+    /**
+     * Encoder for the properties of one bean type, e.g. a shared state class.
+     * The property list is resolved once when the encoder is created and the
+     * property values are read through method handles rather than through
+     * reflection. Simple values (strings, numbers, booleans and enums) are
+     * compared directly against the reference value so that no JSON value
+     * needs to be created for properties that have not changed.
+     */
+    private static class BeanEncoder implements Serializable {
+        private static final MethodType GETTER_TYPE = MethodType
+                .methodType(Object.class, Object.class);
+
+        private enum Kind {
+            STRING, NUMBER, BOOLEAN, ENUM, OTHER;
+
+            private static Kind of(Type type) {
+                if (type == String.class) {
+                    return STRING;
+                } else if (type == boolean.class || type == Boolean.class) {
+                    return BOOLEAN;
+                } else if (type instanceof Class<?>
+                        && ((Class<?>) type).isEnum()) {
+                    return ENUM;
+                } else if (type == int.class || type == Integer.class
+                        || type == long.class || type == Long.class
+                        || type == float.class || type == Float.class
+                        || type == double.class || type == Double.class
+                        || type == short.class || type == Short.class
+                        || type == byte.class || type == Byte.class) {
+                    return NUMBER;
+                } else {
+                    return OTHER;
+                }
+            }
+        }
+
+        private final BeanProperty[] properties;
+        private final String[] names;
+        private final Type[] types;
+        private final Kind[] kinds;
+        private final MethodHandle[] getters;
+
+        public BeanEncoder(Class<?> type, Collection<BeanProperty> properties) {
+            int count = properties.size();
+            this.properties = properties.toArray(new BeanProperty[count]);
+            names = new String[count];
+            types = new Type[count];
+            kinds = new Kind[count];
+            getters = new MethodHandle[count];
+
+            Set<String> seenNames = new HashSet<>();
+            for (int i = 0; i < count; i++) {
+                BeanProperty property = this.properties[i];
+                String name = property.getName();
+                if (!seenNames.add(name)) {
+                    throw new RuntimeException("Can't encode " + type.getName()
+                            + " as it has multiple properties with the name "
+                            + name.toLowerCase()
+                            + ". This can happen if there are getters and setters for a public field (the framework can't know which to ignore) or if there are properties with only casing distinguishing between the names (e.g. getFoo() and getFOO())");
+                }
+                names[i] = name;
+                // We can't use PropertyDescriptor.getPropertyType() as it does
+                // not support generics
+                types[i] = property.getType();
+                kinds[i] = Kind.of(types[i]);
+                getters[i] = findGetter(property);
+            }
+        }
+
+        private static MethodHandle findGetter(BeanProperty property) {
+            try {
+                if (property instanceof FieldProperty) {
+                    return ((FieldProperty) property).getGetterHandle()
+                            .asType(GETTER_TYPE);
+                } else if (property instanceof MethodProperty) {
+                    return ((MethodProperty) property).getGetterHandle()
+                            .asType(GETTER_TYPE);
+                }
+            } catch (IllegalAccessException e) {
+                // Fall back to reading the value through the property
+            }
+            return null;
+        }
+
+        private Object getValue(int index, Object bean) throws Exception {
+            MethodHandle getter = getters[index];
+            if (getter == null) {
+                return properties[index].getValue(bean);
+            }
+            try {
+                return (Object) getter.invokeExact(bean);
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new RuntimeException(t);
+            }
+        }
+
+        public EncodeResult encode(Object bean, JsonObject referenceValue,
+                ConnectorTracker connectorTracker) throws Exception {
+            JsonObject encoded = Json.createObject();
+            JsonObject diff = Json.createObject();
+
+            for (int i = 0; i < names.length; i++) {
+                String fieldName = names[i];
+                Object fieldValue = getValue(i, bean);
+
+                JsonValue fieldReference;
+                if (referenceValue != null) {
+                    fieldReference = referenceValue.get(fieldName);
+                    if (fieldReference instanceof JsonNull) {
+                        fieldReference = null;
+                    }
+                } else {
+                    fieldReference = null;
+                }
+
+                if (fieldReference != null && fieldValue != null
+                        && isUnchanged(kinds[i], fieldValue, fieldReference)) {
+                    // Reuse the immutable reference value as is
+                    encoded.put(fieldName, fieldReference);
+                    continue;
+                }
+
+                EncodeResult encodeResult = JsonCodec.encode(fieldValue,
+                        fieldReference, types[i], connectorTracker);
+                encoded.put(fieldName, encodeResult.getEncodedValue());
+
+                if (valueChanged(encodeResult.getEncodedValue(),
+                        fieldReference)) {
+                    diff.put(fieldName, encodeResult.getDiffOrValue());
+                }
+            }
+            return new EncodeResult(encoded, diff);
+        }
+
+        private static boolean isUnchanged(Kind kind, Object value,
+                JsonValue reference) {
+            switch (kind) {
+            case STRING:
+                return reference.getType() == JsonType.STRING
+                        && reference.asString().equals(value);
+            case NUMBER:
+                return reference.getType() == JsonType.NUMBER && reference
+                        .asNumber() == ((Number) value).doubleValue();
+            case BOOLEAN:
+                return reference.getType() == JsonType.BOOLEAN
+                        && reference.asBoolean() == ((Boolean) value)
+                                .booleanValue();
+            case ENUM:
+                return reference.getType() == JsonType.STRING
+                        && reference.asString().equals(((Enum<?>) value).name());
+            default:
+                return false;
+            }
+        }
+    }
+
     /**
      * Cache the collection of bean properties for a given type to avoid doing a
      * quite expensive lookup multiple times. Will be used from any thread that
@@ -206,6 +375,12 @@ public class JsonCodec implements Serializable {
      */
     private static final ConcurrentMap<Class<?>, Collection<BeanProperty>> typePropertyCache = new ConcurrentHashMap<>();
 
+    /**
+     * Cache of the compiled encoders for each bean type, see
+     * {@link #typePropertyCache} for the thread safety requirements.
+     */
+    private static final ConcurrentMap<Class<?>, BeanEncoder> beanEncoderCache = new ConcurrentHashMap<>();
+
     private static final Map<Class<?>, String> typeToTransportType = new HashMap<>();
 
     /**
@@ -708,54 +883,32 @@ public class JsonCodec implements Serializable {
         return properties;
     }
 
+    private static BeanEncoder getBeanEncoder(Class<?> type)
+            throws IntrospectionException {
+        BeanEncoder cachedEncoder = beanEncoderCache.get(type);
+        if (cachedEncoder != null) {
+            return cachedEncoder;
+        }
+        BeanEncoder encoder = new BeanEncoder(type, getProperties(type));
+
+        // Doesn't matter if the same encoder is created multiple times from
+        // different threads, so there's no need to do e.g. putIfAbsent
+        beanEncoderCache.put(type, encoder);
+        return encoder;
+    }
+
     /*
-     * Loops through the fields of value and encodes them.
+     * Encodes the properties of value using the encoder compiled for its type.
      */
     private static EncodeResult encodeObject(Object value, Class<?> valueType,
             JsonObject referenceValue, ConnectorTracker connectorTracker) {
-        JsonObject encoded = Json.createObject();
-        JsonObject diff = Json.createObject();
-
         try {
-            for (BeanProperty property : getProperties(valueType)) {
-                String fieldName = property.getName();
-                // We can't use PropertyDescriptor.getPropertyType() as it does
-                // not support generics
-                Type fieldType = property.getType();
-                Object fieldValue = property.getValue(value);
-
-                if (encoded.hasKey(fieldName)) {
-                    throw new RuntimeException("Can't encode "
-                            + valueType.getName()
-                            + " as it has multiple properties with the name "
-                            + fieldName.toLowerCase()
-                            + ". This can happen if there are getters and setters for a public field (the framework can't know which to ignore) or if there are properties with only casing distinguishing between the names (e.g. getFoo() and getFOO())");
-                }
-
-                JsonValue fieldReference;
-                if (referenceValue != null) {
-                    fieldReference = referenceValue.get(fieldName);
-                    if (fieldReference instanceof JsonNull) {
-                        fieldReference = null;
-                    }
-                } else {
-                    fieldReference = null;
-                }
-
-                EncodeResult encodeResult = encode(fieldValue, fieldReference,
-                        fieldType, connectorTracker);
-                encoded.put(fieldName, encodeResult.getEncodedValue());
-
-                if (valueChanged(encodeResult.getEncodedValue(),
-                        fieldReference)) {
-                    diff.put(fieldName, encodeResult.getDiffOrValue());
-                }
-            }
+            return getBeanEncoder(valueType).encode(value, referenceValue,
+                    connectorTracker);
         } catch (Exception e) {
             // TODO: Should exceptions be handled in a different way?
             throw new RuntimeException(e);
         }
-        return new EncodeResult(encoded, diff);
     }
 
     /**
@@ -18,6 +18,8 @@ package com.vaadin.server;
 
 import java.io.Serializable;
 import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 
 import com.vaadin.data.ValueProvider;
 import com.vaadin.data.provider.DataKeyMapper;
@@ -25,6 +27,12 @@ import com.vaadin.data.provider.DataKeyMapper;
 /**
  * <code>KeyMapper</code> is the simple two-way map for generating textual keys
  * for objects and retrieving the objects later with the key.
+ * <p>
+ * Objects are mapped by their identifiers, which by default are the objects
+ * themselves. An identifier getter can be set to map objects by e.g. the
+ * {@link com.vaadin.data.provider.DataProvider#getId(Object) data provider
+ * identifier} so that updated instances of the same item keep their key and
+ * can be refreshed without searching through all mapped objects.
  *
  * @author Vaadin Ltd.
  * @since 3.0
@@ -33,10 +41,32 @@ public class KeyMapper<V> implements DataKeyMapper<V>, Serializable {
 
     private int lastKey = 0;
 
-    private final HashMap<V, String> objectKeyMap = new HashMap<>();
+    private final HashMap<Object, String> objectIdKeyMap = new HashMap<>();
 
     private final HashMap<String, V> keyObjectMap = new HashMap<>();
 
+    private ValueProvider<V, Object> identifierGetter;
+
+    /**
+     * Constructs a new mapper that maps objects by the given identifier.
+     *
+     * @since 8.0
+     * @param identifierGetter
+     *            the function to get an identifier from a data object, not
+     *            <code>null</code>
+     */
+    public KeyMapper(ValueProvider<V, Object> identifierGetter) {
+        this.identifierGetter = Objects.requireNonNull(identifierGetter,
+                "identifierGetter cannot be null");
+    }
+
+    /**
+     * Constructs a new mapper that maps objects by the objects themselves.
+     */
+    public KeyMapper() {
+        this(v -> v);
+    }
+
     /**
      * Gets key for an object.
      *
@@ -51,19 +81,25 @@ public class KeyMapper<V> implements DataKeyMapper<V>, Serializable {
         }
 
         // If the object is already mapped, use existing key
-        String key = objectKeyMap.get(o);
+        Object id = identifierGetter.apply(o);
+        String key = objectIdKeyMap.get(id);
         if (key != null) {
             return key;
         }
 
         // If the object is not yet mapped, map it
         key = String.valueOf(++lastKey);
-        objectKeyMap.put(o, key);
+        objectIdKeyMap.put(id, key);
         keyObjectMap.put(key, o);
 
         return key;
     }
 
+    @Override
+    public boolean has(V o) {
+        return objectIdKeyMap.containsKey(identifierGetter.apply(o));
+    }
+
     /**
      * Retrieves object with the key.
      *
@@ -84,10 +120,10 @@ public class KeyMapper<V> implements DataKeyMapper<V>, Serializable {
      */
     @Override
     public void remove(V removeobj) {
-        final String key = objectKeyMap.get(removeobj);
+        final String key = objectIdKeyMap
+                .remove(identifierGetter.apply(removeobj));
 
         if (key != null) {
-            objectKeyMap.remove(removeobj);
             keyObjectMap.remove(key);
         }
     }
@@ -97,7 +133,7 @@ public class KeyMapper<V> implements DataKeyMapper<V>, Serializable {
      */
     @Override
     public void removeAll() {
-        objectKeyMap.clear();
+        objectIdKeyMap.clear();
         keyObjectMap.clear();
     }
 
@@ -116,15 +152,24 @@ public class KeyMapper<V> implements DataKeyMapper<V>, Serializable {
     }
 
     @Override
-    public void refresh(V dataObject,
-            ValueProvider<V, Object> identifierGetter) {
-        Object id = identifierGetter.apply(dataObject);
-        objectKeyMap.entrySet().stream()
-                .filter(e -> identifierGetter.apply(e.getKey()).equals(id))
-                .findAny().ifPresent(e -> {
-                    String key = objectKeyMap.remove(e.getKey());
-                    objectKeyMap.put(dataObject, key);
-                    keyObjectMap.put(key, dataObject);
-                });
+    public void refresh(V dataObject) {
+        String key = objectIdKeyMap.get(identifierGetter.apply(dataObject));
+        if (key != null) {
+            keyObjectMap.put(key, dataObject);
+        }
+    }
+
+    @Override
+    public void setIdentifierGetter(ValueProvider<V, Object> identifierGetter) {
+        Objects.requireNonNull(identifierGetter,
+                "identifierGetter cannot be null");
+        if (this.identifierGetter != identifierGetter) {
+            this.identifierGetter = identifierGetter;
+            objectIdKeyMap.clear();
+            for (Map.Entry<String, V> entry : keyObjectMap.entrySet()) {
+                objectIdKeyMap.put(identifierGetter.apply(entry.getValue()),
+                        entry.getKey());
+            }
+        }
     }
 }
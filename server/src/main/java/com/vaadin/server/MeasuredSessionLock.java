@@ -0,0 +1,172 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Session lock that measures how long threads wait for the lock and how long
+ * they hold it, and reports it to the {@link SessionLockListener}s of the
+ * service. Nothing is measured while there are no listeners.
+ *
+ * @author Vaadin Ltd
+ * @since 8.0
+ */
+class MeasuredSessionLock extends ReentrantLock {
+
+    private transient VaadinService service;
+    private transient VaadinSession session;
+
+    /*
+     * The following fields are only used by the thread holding the lock.
+     */
+    private transient boolean measuring;
+    private transient long acquiredAt;
+    private transient long waitNanos;
+    private transient int pendingAccessTaskCount;
+    private transient StackTraceElement[] blockingStackTrace;
+
+    /**
+     * Creates a new lock for the given service.
+     *
+     * @param service
+     *            the service to report measurements to
+     */
+    public MeasuredSessionLock(VaadinService service) {
+        this.service = service;
+    }
+
+    /**
+     * Sets the session that this lock protects. Also restores the service
+     * after deserialization.
+     *
+     * @param session
+     *            the Vaadin session
+     */
+    void setSession(VaadinSession session) {
+        this.session = session;
+        service = session.getService();
+    }
+
+    @Override
+    public void lock() {
+        if (super.tryLock()) {
+            acquired(0, null);
+            return;
+        }
+
+        long start = System.nanoTime();
+        StackTraceElement[] blocking = null;
+        long threshold = isMeasured()
+                ? service.getSessionLockStackCaptureThreshold() : 0;
+        if (threshold > 0) {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    if (super.tryLock(threshold, TimeUnit.MILLISECONDS)) {
+                        break;
+                    }
+                } catch (InterruptedException e) {
+                    // lock() is not interruptible, restore the flag afterwards
+                    interrupted = true;
+                    continue;
+                }
+                Thread owner = getOwner();
+                if (blocking == null && owner != null) {
+                    blocking = owner.getStackTrace();
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            super.lock();
+        }
+        acquired(System.nanoTime() - start, blocking);
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        long start = System.nanoTime();
+        super.lockInterruptibly();
+        acquired(System.nanoTime() - start, null);
+    }
+
+    @Override
+    public boolean tryLock() {
+        if (super.tryLock()) {
+            acquired(0, null);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean tryLock(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        long start = System.nanoTime();
+        if (super.tryLock(timeout, unit)) {
+            acquired(System.nanoTime() - start, null);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void unlock() {
+        if (!measuring || getHoldCount() != 1) {
+            super.unlock();
+            return;
+        }
+
+        measuring = false;
+        long holdNanos = System.nanoTime() - acquiredAt;
+        StackTraceElement[] blocking = blockingStackTrace;
+        blockingStackTrace = null;
+        try {
+            VaadinService currentService = service;
+            if (currentService != null) {
+                currentService.fireSessionLockEvent(new SessionLockEvent(
+                        currentService, session, waitNanos, holdNanos,
+                        pendingAccessTaskCount, blocking));
+            }
+        } finally {
+            super.unlock();
+        }
+    }
+
+    private boolean isMeasured() {
+        VaadinService currentService = service;
+        return currentService != null
+                && currentService.hasSessionLockListeners();
+    }
+
+    private void acquired(long waitTime, StackTraceElement[] blocking) {
+        if (getHoldCount() != 1) {
+            return;
+        }
+        measuring = isMeasured();
+        if (measuring) {
+            waitNanos = waitTime;
+            blockingStackTrace = blocking;
+            VaadinSession currentSession = session;
+            pendingAccessTaskCount = currentSession == null ? 0
+                    : currentSession.getPendingAccessQueue().size();
+            acquiredAt = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+import com.vaadin.ui.UI;
+import com.vaadin.util.CurrentInstance;
+
+/**
+ * Measures how long the different phases of handling a UIDL request take. A
+ * timer is only created for a request if there are
+ * {@link RequestTimingListener}s registered to the service, which keeps the
+ * overhead of the measurements negligible otherwise.
+ * <p>
+ * The phases follow each other, so each call to {@link #mark(Phase)}
+ * attributes the time passed since the previous mark to the given phase. A
+ * phase can be marked several times, in which case the durations are summed.
+ *
+ * @see VaadinService#addRequestTimingListener(RequestTimingListener)
+ *
+ * @author Vaadin Ltd
+ * @since 8.0
+ */
+public class RequestTimer implements Serializable {
+
+    /**
+     * The phases of handling a UIDL request.
+     */
+    public enum Phase {
+        /**
+         * Waiting for the session lock.
+         */
+        LOCK_WAIT,
+        /**
+         * Reading and decoding the RPC invocations from the client.
+         */
+        RPC_DECODE,
+        /**
+         * Running the RPC handlers and listeners for the invocations.
+         */
+        RPC_INVOCATION,
+        /**
+         * Running pending access tasks and
+         * {@link ClientConnector#beforeClientResponse(boolean)} for dirty
+         * connectors.
+         */
+        BEFORE_CLIENT_RESPONSE,
+        /**
+         * Painting legacy components that implement
+         * {@link com.vaadin.ui.LegacyComponent}.
+         */
+        LEGACY_PAINT,
+        /**
+         * Encoding the shared state of dirty connectors.
+         */
+        STATE_ENCODING,
+        /**
+         * Writing the rest of the response.
+         */
+        RESPONSE_WRITE;
+    }
+
+    private final VaadinService service;
+    private final long[] phaseNanos = new long[Phase.values().length];
+    private final long startTime;
+    private long lastMark;
+    private Class<? extends UI> uiClass;
+    private boolean finished = false;
+
+    private RequestTimer(VaadinService service) {
+        this.service = service;
+        startTime = System.nanoTime();
+        lastMark = startTime;
+    }
+
+    /**
+     * Starts timing a request handled by the current thread if the service has
+     * request timing listeners.
+     *
+     * @param service
+     *            the service handling the request
+     * @return the started timer, or <code>null</code> if the service has no
+     *         request timing listeners
+     */
+    public static RequestTimer start(VaadinService service) {
+        if (!service.hasRequestTimingListeners()) {
+            return null;
+        }
+        RequestTimer timer = new RequestTimer(service);
+        CurrentInstance.set(RequestTimer.class, timer);
+        return timer;
+    }
+
+    /**
+     * Gets the timer of the request handled by the current thread.
+     *
+     * @return the timer, or <code>null</code> if the request is not timed or
+     *         the timer has already been finished
+     */
+    public static RequestTimer getCurrent() {
+        return CurrentInstance.get(RequestTimer.class);
+    }
+
+    /**
+     * Attributes the time passed since the previous mark to the given phase of
+     * the request handled by the current thread. Does nothing if the request
+     * is not timed.
+     *
+     * @param phase
+     *            the phase that has ended
+     */
+    public static void mark(Phase phase) {
+        RequestTimer timer = CurrentInstance.get(RequestTimer.class);
+        if (timer != null) {
+            timer.markPhase(phase);
+        }
+    }
+
+    /**
+     * Sets the UI class of the UI that the request of the current thread is
+     * for. Does nothing if the request is not timed.
+     *
+     * @param ui
+     *            the UI for which the request is handled
+     */
+    public static void setUI(UI ui) {
+        RequestTimer timer = CurrentInstance.get(RequestTimer.class);
+        if (timer != null) {
+            timer.uiClass = ui.getClass();
+        }
+    }
+
+    private void markPhase(Phase phase) {
+        long now = System.nanoTime();
+        phaseNanos[phase.ordinal()] += now - lastMark;
+        lastMark = now;
+    }
+
+    /**
+     * Stops timing and notifies the request timing listeners of the service.
+     * Requests for which no UI was found are not reported. Does nothing if the
+     * timer has already been finished.
+     */
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (CurrentInstance.get(RequestTimer.class) == this) {
+            CurrentInstance.set(RequestTimer.class, null);
+        }
+        if (uiClass != null) {
+            service.fireRequestTiming(new RequestTimingEvent(service, uiClass,
+                    phaseNanos.clone(), System.nanoTime() - startTime));
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            builder.append(phase).append('=')
+                    .append(TimeUnit.NANOSECONDS
+                            .toMicros(phaseNanos[phase.ordinal()]))
+                    .append("us ");
+        }
+        return builder.toString().trim();
+    }
+}
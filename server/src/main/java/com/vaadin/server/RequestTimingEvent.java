@@ -0,0 +1,103 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.util.EventObject;
+
+import com.vaadin.server.RequestTimer.Phase;
+import com.vaadin.ui.UI;
+
+/**
+ * Event fired after a UIDL request has been handled, telling how long each
+ * phase of handling the request took.
+ *
+ * @see RequestTimingListener#requestTimed(RequestTimingEvent)
+ * @see VaadinService#addRequestTimingListener(RequestTimingListener)
+ *
+ * @author Vaadin Ltd
+ * @since 8.0
+ */
+public class RequestTimingEvent extends EventObject {
+
+    private final Class<? extends UI> uiClass;
+    private final long[] phaseNanos;
+    private final long totalNanos;
+
+    /**
+     * Creates a new event.
+     *
+     * @param service
+     *            the Vaadin service from which the event originates
+     * @param uiClass
+     *            the class of the UI that the request was for
+     * @param phaseNanos
+     *            the duration of each phase in nanoseconds, indexed by the
+     *            ordinal of the phase
+     * @param totalNanos
+     *            the total duration of handling the request in nanoseconds
+     */
+    public RequestTimingEvent(VaadinService service,
+            Class<? extends UI> uiClass, long[] phaseNanos, long totalNanos) {
+        super(service);
+        this.uiClass = uiClass;
+        this.phaseNanos = phaseNanos;
+        this.totalNanos = totalNanos;
+    }
+
+    @Override
+    public VaadinService getSource() {
+        return (VaadinService) super.getSource();
+    }
+
+    /**
+     * Gets the Vaadin service from which this event originates.
+     *
+     * @return the Vaadin service instance
+     */
+    public VaadinService getService() {
+        return getSource();
+    }
+
+    /**
+     * Gets the class of the UI that the request was for.
+     *
+     * @return the UI class
+     */
+    public Class<? extends UI> getUIClass() {
+        return uiClass;
+    }
+
+    /**
+     * Gets how long the given phase of handling the request took.
+     *
+     * @param phase
+     *            the phase
+     * @return the duration of the phase in nanoseconds
+     */
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * Gets how long handling the request took in total, from before waiting
+     * for the session lock until the response was written.
+     *
+     * @return the total duration in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+}
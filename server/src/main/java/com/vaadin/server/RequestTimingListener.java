@@ -0,0 +1,44 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.io.Serializable;
+
+/**
+ * Event listener that can be registered to a {@link VaadinService} to get the
+ * durations of the phases of each handled UIDL request. Listeners are
+ * typically registered from a {@link VaadinServiceInitListener} so that they
+ * are in place before any requests are handled.
+ * <p>
+ * The listener is called by the thread that handled the request, after the
+ * session has been unlocked.
+ *
+ * @see VaadinService#addRequestTimingListener(RequestTimingListener)
+ * @see RequestTimingStatistics
+ *
+ * @author Vaadin Ltd
+ * @since 8.0
+ */
+@FunctionalInterface
+public interface RequestTimingListener extends Serializable {
+    /**
+     * Invoked after a UIDL request has been handled.
+     *
+     * @param event
+     *            the request timing event
+     */
+    public void requestTimed(RequestTimingEvent event);
+}
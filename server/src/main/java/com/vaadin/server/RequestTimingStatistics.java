@@ -0,0 +1,106 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.vaadin.server.RequestTimer.Phase;
+import com.vaadin.ui.UI;
+
+/**
+ * Collects histograms of the durations of the phases of UIDL requests for
+ * each UI class. Register an instance using
+ * {@link VaadinService#addRequestTimingListener(RequestTimingListener)}, e.g.
+ * from a {@link VaadinServiceInitListener}, and read the histograms for
+ * exporting them to a monitoring system.
+ *
+ * @author Vaadin Ltd
+ * @since 8.0
+ */
+public class RequestTimingStatistics implements RequestTimingListener {
+
+    /**
+     * The histograms for one UI class.
+     */
+    private static class UIStatistics implements Serializable {
+        private final Map<Phase, DurationHistogram> phases = new EnumMap<>(
+                Phase.class);
+        private final DurationHistogram total = new DurationHistogram();
+
+        public UIStatistics() {
+            for (Phase phase : Phase.values()) {
+                phases.put(phase, new DurationHistogram());
+            }
+        }
+    }
+
+    private final Map<Class<? extends UI>, UIStatistics> statistics = new ConcurrentHashMap<>();
+
+    @Override
+    public void requestTimed(RequestTimingEvent event) {
+        UIStatistics uiStatistics = statistics.computeIfAbsent(
+                event.getUIClass(), uiClass -> new UIStatistics());
+        for (Phase phase : Phase.values()) {
+            uiStatistics.phases.get(phase).record(event.getPhaseNanos(phase));
+        }
+        uiStatistics.total.record(event.getTotalNanos());
+    }
+
+    /**
+     * Gets the UI classes for which requests have been timed.
+     *
+     * @return an unmodifiable set of UI classes
+     */
+    public Set<Class<? extends UI>> getUIClasses() {
+        return Collections.unmodifiableSet(statistics.keySet());
+    }
+
+    /**
+     * Gets the histogram of durations of the given phase for requests to UIs
+     * of the given class.
+     *
+     * @param uiClass
+     *            the UI class
+     * @param phase
+     *            the request phase
+     * @return the histogram, or <code>null</code> if no requests have been
+     *         timed for the UI class
+     */
+    public DurationHistogram getHistogram(Class<? extends UI> uiClass,
+            Phase phase) {
+        UIStatistics uiStatistics = statistics.get(uiClass);
+        return uiStatistics == null ? null : uiStatistics.phases.get(phase);
+    }
+
+    /**
+     * Gets the histogram of total request durations for requests to UIs of
+     * the given class.
+     *
+     * @param uiClass
+     *            the UI class
+     * @return the histogram, or <code>null</code> if no requests have been
+     *         timed for the UI class
+     */
+    public DurationHistogram getTotalHistogram(Class<? extends UI> uiClass) {
+        UIStatistics uiStatistics = statistics.get(uiClass);
+        return uiStatistics == null ? null : uiStatistics.total;
+    }
+}
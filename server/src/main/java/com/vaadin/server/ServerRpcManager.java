@@ -26,6 +26,7 @@ import java.util.logging.Logger;
 
 import com.vaadin.shared.Connector;
 import com.vaadin.shared.communication.ServerRpc;
+import com.vaadin.util.MethodInvoker;
 
 /**
  * Server side RPC manager that handles RPC calls coming from the client.
@@ -153,7 +154,7 @@ public class ServerRpcManager<T extends ServerRpc> implements Serializable {
         Method method = invocation.getMethod();
         Object[] arguments = invocation.getParameters();
         try {
-            method.invoke(implementation, arguments);
+            MethodInvoker.forMethod(method).invoke(implementation, arguments);
         } catch (Exception e) {
             throw new RpcInvocationException(
                     "Unable to invoke method " + invocation.getMethodName()
@@ -16,6 +16,8 @@
 package com.vaadin.server;
 
 import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -24,7 +26,13 @@ import com.vaadin.shared.communication.ServerRpc;
 
 public class ServerRpcMethodInvocation extends MethodInvocation {
 
-    private static final Map<String, Method> invocationMethodCache = new ConcurrentHashMap<>(
+    /*
+     * RPC methods by interface and method name, indexed by parameter count.
+     * Looking up a method does not need to allocate anything. The table for an
+     * interface is built once from all its methods, so method names sent by
+     * the client never add entries.
+     */
+    private static final Map<Class<?>, Map<String, Method[]>> invocationMethodCache = new ConcurrentHashMap<>(
             128, 0.75f, 1);
 
     private final Method method;
@@ -53,8 +61,7 @@ public class ServerRpcMethodInvocation extends MethodInvocation {
 
     /**
      * Tries to find the method from the cache or alternatively by invoking
-     * {@link #doFindInvocationMethod(Class, String, int)} and updating the
-     * cache.
+     * {@link #doFindInvocationMethods(Class)} and updating the cache.
      *
      * @param targetType
      * @param methodName
@@ -65,17 +72,18 @@ public class ServerRpcMethodInvocation extends MethodInvocation {
             int parameterCount) {
         // TODO currently only using method name and number of parameters as the
         // signature
-        String signature = targetType.getName() + "." + methodName + "("
-                + parameterCount;
-        Method invocationMethod = invocationMethodCache.get(signature);
-
-        if (invocationMethod == null) {
-            invocationMethod = doFindInvocationMethod(targetType, methodName,
-                    parameterCount);
+        Map<String, Method[]> methodsByName = invocationMethodCache.get(
+                targetType);
+        if (methodsByName == null) {
+            methodsByName = invocationMethodCache.computeIfAbsent(targetType,
+                    this::doFindInvocationMethods);
+        }
+        Method[] methods = methodsByName.get(methodName);
 
-            if (invocationMethod != null) {
-                invocationMethodCache.put(signature, invocationMethod);
-            }
+        Method invocationMethod = null;
+        if (methods != null && parameterCount >= 0
+                && parameterCount < methods.length) {
+            invocationMethod = methods[parameterCount];
         }
 
         if (invocationMethod == null) {
@@ -88,25 +96,32 @@ public class ServerRpcMethodInvocation extends MethodInvocation {
     }
 
     /**
-     * Tries to find the method from the class by looping through available
-     * methods.
+     * Finds the methods of the class by looping through available methods.
      *
      * @param targetType
-     * @param methodName
-     * @param parameterCount
-     * @return
+     * @return the first found method for each name and parameter count,
+     *         indexed by the parameter count
      */
-    private Method doFindInvocationMethod(Class<?> targetType,
-            String methodName, int parameterCount) {
-        Method[] methods = targetType.getMethods();
-        for (Method method : methods) {
-            Class<?>[] parameterTypes = method.getParameterTypes();
-            if (method.getName().equals(methodName)
-                    && parameterTypes.length == parameterCount) {
-                return method;
+    private Map<String, Method[]> doFindInvocationMethods(
+            Class<?> targetType) {
+        Map<String, Method[]> methodsByName = new HashMap<>();
+        for (Method method : targetType.getMethods()) {
+            Method[] methodsByParameterCount = methodsByName
+                    .get(method.getName());
+            if (methodsByParameterCount == null) {
+                methodsByParameterCount = new Method[0];
+            }
+            int parameterCount = method.getParameterCount();
+            if (parameterCount >= methodsByParameterCount.length) {
+                methodsByParameterCount = Arrays.copyOf(
+                        methodsByParameterCount, parameterCount + 1);
+                methodsByName.put(method.getName(), methodsByParameterCount);
+            }
+            if (methodsByParameterCount[parameterCount] == null) {
+                methodsByParameterCount[parameterCount] = method;
             }
         }
-        return null;
+        return methodsByName;
     }
 
 }
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.util.EventObject;
+
+/**
+ * Event fired when a thread is about to release the lock of a session after
+ * having held it. The event tells how long the thread waited for the lock and
+ * how long it was held.
+ *
+ * @see SessionLockListener#sessionLockReleased(SessionLockEvent)
+ * @see VaadinService#addSessionLockListener(SessionLockListener)
+ *
+ * @author Vaadin Ltd
+ * @since 8.0
+ */
+public class SessionLockEvent extends EventObject {
+
+    private final VaadinSession session;
+    private final long waitNanos;
+    private final long holdNanos;
+    private final int pendingAccessTaskCount;
+    private final StackTraceElement[] blockingStackTrace;
+
+    /**
+     * Creates a new event.
+     *
+     * @param service
+     *            the Vaadin service from which the event originates
+     * @param session
+     *            the Vaadin session that was locked, or <code>null</code> if
+     *            the lock was taken before the session was initialized
+     * @param waitNanos
+     *            the time spent waiting for the lock, in nanoseconds
+     * @param holdNanos
+     *            the time the lock was held, in nanoseconds
+     * @param pendingAccessTaskCount
+     *            the number of access tasks that were queued for the session
+     *            when the lock was acquired
+     * @param blockingStackTrace
+     *            the stack trace of the thread that held the lock when waiting
+     *            for the lock took longer than the threshold, or
+     *            <code>null</code>
+     */
+    public SessionLockEvent(VaadinService service, VaadinSession session,
+            long waitNanos, long holdNanos, int pendingAccessTaskCount,
+            StackTraceElement[] blockingStackTrace) {
+        super(service);
+        this.session = session;
+        this.waitNanos = waitNanos;
+        this.holdNanos = holdNanos;
+        this.pendingAccessTaskCount = pendingAccessTaskCount;
+        this.blockingStackTrace = blockingStackTrace;
+    }
+
+    @Override
+    public VaadinService getSource() {
+        return (VaadinService) super.getSource();
+    }
+
+    /**
+     * Gets the Vaadin service from which this event originates.
+     *
+     * @return the Vaadin service instance
+     */
+    public VaadinService getService() {
+        return getSource();
+    }
+
+    /**
+     * Gets the Vaadin session that was locked. The session is still locked
+     * when the event is fired.
+     *
+     * @return the Vaadin session, or <code>null</code> if the lock was taken
+     *         before the session was initialized
+     */
+    public VaadinSession getSession() {
+        return session;
+    }
+
+    /**
+     * Gets the time the thread waited before it got the lock.
+     *
+     * @return the wait time in nanoseconds
+     */
+    public long getWaitNanos() {
+        return waitNanos;
+    }
+
+    /**
+     * Gets the time the thread has held the lock.
+     *
+     * @return the hold time in nanoseconds
+     */
+    public long getHoldNanos() {
+        return holdNanos;
+    }
+
+    /**
+     * Gets the number of tasks added using
+     * {@link VaadinSession#access(Runnable)} that were waiting for the lock
+     * when the lock was acquired.
+     *
+     * @return the number of pending access tasks
+     */
+    public int getPendingAccessTaskCount() {
+        return pendingAccessTaskCount;
+    }
+
+    /**
+     * Gets the stack trace of the thread that held the lock while this thread
+     * had been waiting for longer than the threshold set using
+     * {@link VaadinService#setSessionLockStackCaptureThreshold(long)}.
+     *
+     * @return the stack trace of the blocking thread, or <code>null</code> if
+     *         the threshold was not exceeded
+     */
+    public StackTraceElement[] getBlockingStackTrace() {
+        return blockingStackTrace;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.io.Serializable;
+
+/**
+ * Event listener that can be registered to a {@link VaadinService} to get an
+ * event each time the lock of a session is released, for measuring contention
+ * on session locks.
+ * <p>
+ * The listener is called by the thread releasing the lock while it still holds
+ * the lock, so it should return quickly.
+ *
+ * @see VaadinService#addSessionLockListener(SessionLockListener)
+ * @see SessionLockStatistics
+ *
+ * @author Vaadin Ltd
+ * @since 8.0
+ */
+@FunctionalInterface
+public interface SessionLockListener extends Serializable {
+    /**
+     * Invoked when a thread is about to release the lock of a session.
+     *
+     * @param event
+     *            the session lock event
+     */
+    public void sessionLockReleased(SessionLockEvent event);
+}
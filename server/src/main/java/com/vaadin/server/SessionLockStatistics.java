@@ -0,0 +1,150 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Collects histograms of how long threads wait for session locks and how long
+ * they hold them. An instance registered using
+ * {@link VaadinService#addSessionLockListener(SessionLockListener)} collects
+ * service wide statistics and also keeps statistics for each session, which
+ * can be retrieved using {@link #getSessionStatistics(VaadinSession)}.
+ * <p>
+ * When a thread has waited longer than the threshold set using
+ * {@link VaadinService#setSessionLockStackCaptureThreshold(long)}, the stack
+ * trace of the thread holding the lock is logged.
+ *
+ * @author Vaadin Ltd
+ * @since 8.0
+ */
+public class SessionLockStatistics implements SessionLockListener {
+
+    private final DurationHistogram waitTimes = new DurationHistogram();
+    private final DurationHistogram holdTimes = new DurationHistogram();
+    private final AtomicLong maxPendingAccessTasks = new AtomicLong();
+    private final boolean collectSessionStatistics;
+
+    /**
+     * Creates a new statistics collector that also keeps statistics for each
+     * session.
+     */
+    public SessionLockStatistics() {
+        this(true);
+    }
+
+    private SessionLockStatistics(boolean collectSessionStatistics) {
+        this.collectSessionStatistics = collectSessionStatistics;
+    }
+
+    @Override
+    public void sessionLockReleased(SessionLockEvent event) {
+        record(event);
+
+        VaadinSession session = event.getSession();
+        if (collectSessionStatistics && session != null) {
+            // The session is still locked by the current thread
+            SessionLockStatistics sessionStatistics = session
+                    .getAttribute(SessionLockStatistics.class);
+            if (sessionStatistics == null) {
+                sessionStatistics = new SessionLockStatistics(false);
+                session.setAttribute(SessionLockStatistics.class,
+                        sessionStatistics);
+            }
+            sessionStatistics.record(event);
+        }
+
+        StackTraceElement[] blockingStackTrace = event.getBlockingStackTrace();
+        if (blockingStackTrace != null && collectSessionStatistics) {
+            Throwable stack = new Throwable(
+                    "Stack trace of the thread holding the lock");
+            stack.setStackTrace(blockingStackTrace);
+            getLogger().log(Level.WARNING,
+                    "Waited " + TimeUnit.NANOSECONDS
+                            .toMillis(event.getWaitNanos())
+                            + " ms for a session lock",
+                    stack);
+        }
+    }
+
+    private void record(SessionLockEvent event) {
+        waitTimes.record(event.getWaitNanos());
+        holdTimes.record(event.getHoldNanos());
+
+        long pending = event.getPendingAccessTaskCount();
+        long currentMax = maxPendingAccessTasks.get();
+        while (pending > currentMax
+                && !maxPendingAccessTasks.compareAndSet(currentMax, pending)) {
+            currentMax = maxPendingAccessTasks.get();
+        }
+    }
+
+    /**
+     * Gets the histogram of times spent waiting for a session lock.
+     *
+     * @return the wait time histogram
+     */
+    public DurationHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    /**
+     * Gets the histogram of times that session locks have been held.
+     *
+     * @return the hold time histogram
+     */
+    public DurationHistogram getHoldTimes() {
+        return holdTimes;
+    }
+
+    /**
+     * Gets the largest number of access tasks that have been waiting for a
+     * session lock when the lock was acquired.
+     *
+     * @return the largest number of pending access tasks
+     */
+    public long getMaxPendingAccessTasks() {
+        return maxPendingAccessTasks.get();
+    }
+
+    /**
+     * Gets the statistics collected for the given session by a
+     * {@link SessionLockStatistics} instance registered to the service of the
+     * session. The session must be locked.
+     *
+     * @param session
+     *            the Vaadin session
+     * @return the statistics for the session, or <code>null</code> if no
+     *         statistics have been collected
+     */
+    public static SessionLockStatistics getSessionStatistics(
+            VaadinSession session) {
+        return session.getAttribute(SessionLockStatistics.class);
+    }
+
+    @Override
+    public String toString() {
+        return "wait: " + waitTimes + "; hold: " + holdTimes
+                + "; max pending access tasks: " + getMaxPendingAccessTasks();
+    }
+
+    private static Logger getLogger() {
+        return Logger.getLogger(SessionLockStatistics.class.getName());
+    }
+}
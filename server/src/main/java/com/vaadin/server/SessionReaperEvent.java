@@ -0,0 +1,130 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.util.EventObject;
+
+/**
+ * Event fired after the session reaper of a {@link VaadinService} has processed
+ * all sessions, telling how much was reclaimed.
+ *
+ * @see SessionReaperListener#sessionsReaped(SessionReaperEvent)
+ * @see VaadinService#addSessionReaperListener(SessionReaperListener)
+ *
+ * @author Vaadin Ltd
+ * @since 8.0
+ */
+public class SessionReaperEvent extends EventObject {
+
+    private final int sessionCount;
+    private final int skippedSessionCount;
+    private final int removedUICount;
+    private final int reclaimedConnectorCount;
+    private final long durationNanos;
+
+    /**
+     * Creates a new event.
+     *
+     * @param service
+     *            the Vaadin service from which the event originates
+     * @param sessionCount
+     *            the number of sessions that were processed
+     * @param skippedSessionCount
+     *            the number of sessions that were skipped because they were
+     *            locked by another thread
+     * @param removedUICount
+     *            the number of UIs that were removed from their sessions
+     * @param reclaimedConnectorCount
+     *            the number of connectors in the removed UIs
+     * @param durationNanos
+     *            the time it took to process all sessions, in nanoseconds
+     */
+    public SessionReaperEvent(VaadinService service, int sessionCount,
+            int skippedSessionCount, int removedUICount,
+            int reclaimedConnectorCount, long durationNanos) {
+        super(service);
+        this.sessionCount = sessionCount;
+        this.skippedSessionCount = skippedSessionCount;
+        this.removedUICount = removedUICount;
+        this.reclaimedConnectorCount = reclaimedConnectorCount;
+        this.durationNanos = durationNanos;
+    }
+
+    @Override
+    public VaadinService getSource() {
+        return (VaadinService) super.getSource();
+    }
+
+    /**
+     * Gets the Vaadin service from which this event originates.
+     *
+     * @return the Vaadin service instance
+     */
+    public VaadinService getService() {
+        return getSource();
+    }
+
+    /**
+     * Gets the number of sessions that were processed.
+     *
+     * @return the number of processed sessions
+     */
+    public int getSessionCount() {
+        return sessionCount;
+    }
+
+    /**
+     * Gets the number of sessions that were skipped because another thread,
+     * e.g. one handling a request, held the session lock. Skipped sessions are
+     * processed again on the next run, and are also cleaned up at the end of
+     * their own requests.
+     *
+     * @return the number of skipped sessions
+     */
+    public int getSkippedSessionCount() {
+        return skippedSessionCount;
+    }
+
+    /**
+     * Gets the number of UIs that were removed from their sessions, either
+     * because their heartbeat had expired or because they had been closed.
+     *
+     * @return the number of removed UIs
+     */
+    public int getRemovedUICount() {
+        return removedUICount;
+    }
+
+    /**
+     * Gets the number of connectors that were registered to the removed UIs.
+     * This is an estimate of how many components and extensions can now be
+     * garbage collected.
+     *
+     * @return the number of reclaimed connectors
+     */
+    public int getReclaimedConnectorCount() {
+        return reclaimedConnectorCount;
+    }
+
+    /**
+     * Gets the time it took to process all sessions.
+     *
+     * @return the duration in nanoseconds
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+}
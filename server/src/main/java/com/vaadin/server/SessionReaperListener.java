@@ -0,0 +1,43 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.io.Serializable;
+
+/**
+ * Event listener that can be registered to a {@link VaadinService} to get
+ * notified after each run of the session reaper, which periodically closes
+ * inactive UIs and removes closed UIs in all sessions of the service.
+ * <p>
+ * The listener is called by the thread that runs the reaper, after all
+ * sessions have been processed and unlocked.
+ *
+ * @see VaadinService#addSessionReaperListener(SessionReaperListener)
+ * @see VaadinService#reapSessions()
+ *
+ * @author Vaadin Ltd
+ * @since 8.0
+ */
+@FunctionalInterface
+public interface SessionReaperListener extends Serializable {
+    /**
+     * Invoked after the session reaper has processed all sessions.
+     *
+     * @param event
+     *            the session reaper event
+     */
+    public void sessionsReaped(SessionReaperEvent event);
+}
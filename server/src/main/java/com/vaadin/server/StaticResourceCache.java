@@ -0,0 +1,350 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.net.URL;
+import java.net.URLConnection;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A size bounded in-memory cache of static resources served by
+ * {@link VaadinServlet}. Each entry holds the content of a resource together
+ * with a gzip compressed variant, an ETag based on a hash of the content and
+ * the metadata needed for writing the response, so that serving a cached
+ * resource does not need to access the class loader or the file system. The
+ * least recently used entries are evicted when the total size of the cached
+ * content would exceed the configured maximum.
+ *
+ * @author Vaadin Ltd
+ * @since 8.0
+ */
+class StaticResourceCache implements Serializable {
+
+    /**
+     * A cached static resource.
+     */
+    static final class Entry implements Serializable {
+        private final String url;
+        private final String mimeType;
+        private final long lastModified;
+        private final byte[] content;
+        private final byte[] gzippedContent;
+        private final String contentHash;
+
+        Entry(String url, String mimeType, long lastModified, byte[] content,
+                byte[] gzippedContent) {
+            this.url = url;
+            this.mimeType = mimeType;
+            this.lastModified = lastModified;
+            this.content = content;
+            this.gzippedContent = gzippedContent;
+            contentHash = StaticResourceCache.getContentHash(content);
+        }
+
+        /**
+         * Gets the external form of the URL the resource was loaded from.
+         *
+         * @return the resource URL
+         */
+        public String getUrl() {
+            return url;
+        }
+
+        /**
+         * Gets the mime type of the resource.
+         *
+         * @return the mime type, or <code>null</code> if not known
+         */
+        public String getMimeType() {
+            return mimeType;
+        }
+
+        /**
+         * Gets the last modification timestamp of the resource, truncated to
+         * seconds.
+         *
+         * @return the last modification timestamp, or 0 if not known
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Gets the uncompressed content of the resource.
+         *
+         * @return the content, not to be modified
+         */
+        public byte[] getContent() {
+            return content;
+        }
+
+        /**
+         * Gets the gzip compressed content of the resource.
+         *
+         * @return the compressed content not to be modified, or
+         *         <code>null</code> if there is no compressed variant
+         */
+        public byte[] getGzippedContent() {
+            return gzippedContent;
+        }
+
+        /**
+         * Gets the entity tag of the uncompressed content. The tag is derived
+         * from a hash of the content, so it only changes when the content
+         * changes.
+         *
+         * @return the quoted entity tag, not <code>null</code>
+         */
+        public String getETag() {
+            return '"' + contentHash + '"';
+        }
+
+        /**
+         * Gets the hash of the uncompressed content. The hash is calculated in
+         * the same way as the hashes in the resource manifests generated at
+         * build time.
+         *
+         * @return the content hash, not <code>null</code>
+         */
+        public String getContentHash() {
+            return contentHash;
+        }
+
+        /**
+         * Gets the entity tag of the gzip compressed content.
+         *
+         * @return the quoted entity tag, not <code>null</code>
+         */
+        public String getGzippedETag() {
+            // Each representation needs its own strong validator
+            return '"' + contentHash + "-gzip\"";
+        }
+
+        private long getSize() {
+            long size = content.length;
+            if (gzippedContent != null) {
+                size += gzippedContent.length;
+            }
+            return size;
+        }
+    }
+
+    private final long maxSize;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(
+            16, 0.75f, true);
+
+    private long size = 0;
+
+    /**
+     * External forms of the URLs of resources that are too large to be cached,
+     * so that they are not read again for every request.
+     */
+    private final Set<String> tooLargeUrls = new HashSet<>();
+
+    /**
+     * Creates a new cache.
+     *
+     * @param maxSize
+     *            the maximum total size of the cached content in bytes
+     */
+    StaticResourceCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets the largest resource that will be cached. Larger resources are not
+     * cached to avoid a single resource evicting everything else.
+     *
+     * @return the maximum size of a single resource in bytes
+     */
+    long getMaxEntrySize() {
+        return maxSize / 4;
+    }
+
+    /**
+     * Gets the cached entry for a resource.
+     *
+     * @param filename
+     *            the name of the resource
+     * @return the cached entry, or <code>null</code> if the resource is not
+     *         cached
+     */
+    synchronized Entry get(String filename) {
+        return entries.get(filename);
+    }
+
+    /**
+     * Adds an entry to the cache, evicting the least recently used entries if
+     * necessary. Entries larger than {@link #getMaxEntrySize()} are ignored.
+     *
+     * @param filename
+     *            the name of the resource
+     * @param entry
+     *            the entry to add
+     */
+    synchronized void put(String filename, Entry entry) {
+        if (entry.getSize() > getMaxEntrySize()) {
+            return;
+        }
+
+        Entry old = entries.put(filename, entry);
+        if (old != null) {
+            size -= old.getSize();
+        }
+        size += entry.getSize();
+
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet()
+                .iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            Entry eldest = iterator.next().getValue();
+            if (eldest != entry) {
+                size -= eldest.getSize();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Gets the total size of the cached content.
+     *
+     * @return the size in bytes
+     */
+    synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Loads a resource into a new cache entry. A precompressed variant is read
+     * from a file with the suffix {@code .gz} if available, and is otherwise
+     * created if <code>compress</code> is <code>true</code>.
+     *
+     * @param resourceUrl
+     *            the URL to load from
+     * @param mimeType
+     *            the mime type of the resource, or <code>null</code>
+     * @param compress
+     *            whether to create a compressed variant unless a precompressed
+     *            one is available
+     * @return a new entry, or <code>null</code> if the resource is too large
+     *         to be cached
+     * @throws IOException
+     *             if reading the resource fails
+     */
+    Entry load(URL resourceUrl, String mimeType, boolean compress)
+            throws IOException {
+        String urlStr = resourceUrl.toExternalForm();
+        if (isTooLarge(urlStr)) {
+            return null;
+        }
+
+        URLConnection connection = resourceUrl.openConnection();
+        long lastModified = connection.getLastModified();
+        // Browsers send If-Modified-Since without milliseconds
+        lastModified -= lastModified % 1000;
+
+        long maxEntrySize = getMaxEntrySize();
+        byte[] content = null;
+        try (InputStream is = connection.getInputStream()) {
+            // Avoid reading resources that are known to be too large
+            if (connection.getContentLengthLong() <= maxEntrySize) {
+                content = read(is, maxEntrySize);
+            }
+        }
+        if (content == null) {
+            setTooLarge(urlStr);
+            return null;
+        }
+
+        byte[] gzippedContent = null;
+        try (InputStream is = new URL(urlStr + ".gz").openStream()) {
+            gzippedContent = read(is, maxEntrySize - content.length);
+        } catch (FileNotFoundException e) {
+            // NOP: no precompressed version available
+        }
+
+        if (gzippedContent == null && compress) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+                    content.length / 2);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+                gzip.write(content);
+            }
+            // Compressing is pointless if it doesn't make the content smaller
+            if (bytes.size() < content.length) {
+                gzippedContent = bytes.toByteArray();
+            }
+        }
+
+        return new Entry(urlStr, mimeType, lastModified, content,
+                gzippedContent);
+    }
+
+    private synchronized boolean isTooLarge(String url) {
+        return tooLargeUrls.contains(url);
+    }
+
+    private synchronized void setTooLarge(String url) {
+        tooLargeUrls.add(url);
+    }
+
+    /**
+     * Calculates the content hash of a resource. The hash is the start of the
+     * URL safe Base64 encoding of the SHA-256 digest of the content. This must
+     * match how {@code GenerateResourceManifest} in the build helpers
+     * calculates hashes.
+     *
+     * @param content
+     *            the content to hash
+     * @return the content hash
+     */
+    static String getContentHash(byte[] content) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(content);
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(hash).substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static byte[] read(InputStream is, long maxSize)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[Constants.DEFAULT_BUFFER_SIZE];
+        int count;
+        while ((count = is.read(buffer)) >= 0) {
+            if (bytes.size() + count > maxSize) {
+                return null;
+            }
+            bytes.write(buffer, 0, count);
+        }
+        return bytes.toByteArray();
+    }
+}
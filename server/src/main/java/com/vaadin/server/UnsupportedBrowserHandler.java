@@ -33,6 +33,12 @@ public class UnsupportedBrowserHandler extends SynchronizedRequestHandler {
     /** Cookie used to ignore browser checks */
     public static final String FORCE_LOAD_COOKIE = "vaadinforceload=1";
 
+    @Override
+    protected boolean canHandleRequest(VaadinRequest request) {
+        // Heartbeats are handled without locking the session
+        return !ServletPortletHelper.isHeartbeatRequest(request);
+    }
+
     @Override
     public boolean synchronizedHandleRequest(VaadinSession session,
             VaadinRequest request, VaadinResponse response) throws IOException {
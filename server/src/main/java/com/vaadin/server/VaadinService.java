@@ -30,14 +30,21 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Properties;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -151,6 +158,28 @@ public abstract class VaadinService implements Serializable {
      */
     private boolean initialized = false;
 
+    private transient volatile ForkJoinPool forkJoinPool;
+
+    private transient volatile ScheduledExecutorService scheduledExecutor;
+
+    private transient volatile ScheduledExecutorService sessionReaperExecutor;
+
+    private final List<SessionLockListener> sessionLockListeners = new CopyOnWriteArrayList<>();
+
+    private volatile long sessionLockStackCaptureThreshold = 0;
+
+    private final List<RequestTimingListener> requestTimingListeners = new CopyOnWriteArrayList<>();
+
+    private final List<SessionReaperListener> sessionReaperListeners = new CopyOnWriteArrayList<>();
+
+    /*
+     * Weak so that sessions the servlet container drops without unbinding,
+     * e.g. when passivating them, are not kept in memory by the reaper
+     */
+    private transient volatile Map<VaadinSession, Boolean> sessions;
+
+    private transient volatile Map<String, String> staticResourceHashes;
+
     /**
      * Creates a new vaadin service based on a deployment configuration
      *
@@ -207,9 +236,31 @@ public abstract class VaadinService implements Serializable {
 
         requestHandlers = Collections.unmodifiableCollection(handlers);
 
+        long reaperInterval = getSessionReaperInterval();
+        if (reaperInterval > 0) {
+            sessionReaperExecutor = createSessionReaperExecutor();
+            sessionReaperExecutor.scheduleWithFixedDelay(this::reapSessions,
+                    reaperInterval, reaperInterval, TimeUnit.SECONDS);
+        }
+
         initialized = true;
     }
 
+    private long getSessionReaperInterval() {
+        try {
+            return Long.parseLong(getDeploymentConfiguration()
+                    .getApplicationOrSystemProperty(
+                            Constants.SERVLET_PARAMETER_SESSION_REAPER_INTERVAL,
+                            "0"));
+        } catch (NumberFormatException e) {
+            getLogger().warning("The "
+                    + Constants.SERVLET_PARAMETER_SESSION_REAPER_INTERVAL
+                    + " parameter should be the number of seconds between"
+                    + " runs of the session reaper, the reaper is disabled");
+            return 0;
+        }
+    }
+
     /**
      * Gets all available service init listeners. A custom Vaadin service
      * implementation can override this method to discover init listeners in
@@ -524,6 +575,7 @@ public abstract class VaadinService implements Serializable {
                     new SessionDestroyEvent(VaadinService.this, session),
                     session.getErrorHandler());
             session.setState(State.CLOSED);
+            getSessions().remove(session);
         });
     }
 
@@ -544,6 +596,238 @@ public abstract class VaadinService implements Serializable {
                 SESSION_DESTROY_METHOD);
     }
 
+    /**
+     * Adds a listener that gets notified each time the lock of a session
+     * belonging to this service is about to be released. The event tells how
+     * long the lock was waited for and held, which can be used for finding
+     * contention on session locks.
+     * <p>
+     * Locks are only measured while there are listeners. Only session locks
+     * created while the service has a listener, e.g. for sessions created
+     * after a listener was added in a {@link VaadinServiceInitListener}, are
+     * measured.
+     *
+     * @see SessionLockStatistics
+     *
+     * @param listener
+     *            the session lock listener
+     * @return a registration object for removing the listener
+     * @since 8.0
+     */
+    public Registration addSessionLockListener(SessionLockListener listener) {
+        sessionLockListeners.add(listener);
+        return () -> sessionLockListeners.remove(listener);
+    }
+
+    /**
+     * Checks whether there are any session lock listeners.
+     *
+     * @return <code>true</code> if there are session lock listeners
+     */
+    boolean hasSessionLockListeners() {
+        return !sessionLockListeners.isEmpty();
+    }
+
+    /**
+     * Notifies the session lock listeners. Called by the thread that is about
+     * to release the lock.
+     *
+     * @param event
+     *            the session lock event
+     */
+    void fireSessionLockEvent(SessionLockEvent event) {
+        for (SessionLockListener listener : sessionLockListeners) {
+            try {
+                listener.sessionLockReleased(event);
+            } catch (RuntimeException e) {
+                getLogger().log(Level.WARNING,
+                        "Session lock listener threw an exception", e);
+            }
+        }
+    }
+
+    /**
+     * Sets the time after which a thread waiting for a session lock captures
+     * the stack trace of the thread holding the lock. The stack trace is
+     * available through {@link SessionLockEvent#getBlockingStackTrace()}.
+     * Stack traces are only captured while there are session lock listeners.
+     *
+     * @param milliseconds
+     *            the threshold in milliseconds, or 0 to never capture stack
+     *            traces
+     * @since 8.0
+     */
+    public void setSessionLockStackCaptureThreshold(long milliseconds) {
+        if (milliseconds < 0) {
+            throw new IllegalArgumentException(
+                    "Threshold cannot be negative");
+        }
+        sessionLockStackCaptureThreshold = milliseconds;
+    }
+
+    /**
+     * Gets the time after which a thread waiting for a session lock captures
+     * the stack trace of the thread holding the lock.
+     *
+     * @return the threshold in milliseconds, or 0 if stack traces are not
+     *         captured
+     * @since 8.0
+     */
+    public long getSessionLockStackCaptureThreshold() {
+        return sessionLockStackCaptureThreshold;
+    }
+
+    /**
+     * Adds a listener that gets the durations of the phases of each UIDL
+     * request handled by this service, e.g. waiting for the session lock,
+     * decoding and running RPC invocations and writing the response. Requests
+     * are only timed while there are listeners, so listeners should typically
+     * be added from a {@link VaadinServiceInitListener}.
+     *
+     * @see RequestTimer
+     * @see RequestTimingStatistics
+     *
+     * @param listener
+     *            the request timing listener
+     * @return a registration object for removing the listener
+     * @since 8.0
+     */
+    public Registration addRequestTimingListener(
+            RequestTimingListener listener) {
+        requestTimingListeners.add(listener);
+        return () -> requestTimingListeners.remove(listener);
+    }
+
+    /**
+     * Checks whether there are any request timing listeners.
+     *
+     * @return <code>true</code> if there are request timing listeners
+     */
+    boolean hasRequestTimingListeners() {
+        return !requestTimingListeners.isEmpty();
+    }
+
+    /**
+     * Notifies the request timing listeners.
+     *
+     * @param event
+     *            the request timing event
+     */
+    void fireRequestTiming(RequestTimingEvent event) {
+        for (RequestTimingListener listener : requestTimingListeners) {
+            try {
+                listener.requestTimed(event);
+            } catch (RuntimeException e) {
+                getLogger().log(Level.WARNING,
+                        "Request timing listener threw an exception", e);
+            }
+        }
+    }
+
+    /**
+     * Adds a listener that gets notified after each run of the session reaper.
+     * The event tells how many UIs were removed and how many connectors were
+     * reclaimed.
+     *
+     * @see #reapSessions()
+     *
+     * @param listener
+     *            the session reaper listener
+     * @return a registration object for removing the listener
+     * @since 8.0
+     */
+    public Registration addSessionReaperListener(
+            SessionReaperListener listener) {
+        sessionReaperListeners.add(listener);
+        return () -> sessionReaperListeners.remove(listener);
+    }
+
+    /**
+     * Closes inactive UIs and removes closed UIs in all open sessions of this
+     * service. This is otherwise only done at the end of requests, so sessions
+     * that no longer receive requests keep their UIs in memory until the
+     * servlet container expires the session.
+     * <p>
+     * The reaper is run periodically in a dedicated thread if the
+     * {@value Constants#SERVLET_PARAMETER_SESSION_REAPER_INTERVAL} init
+     * parameter is set to a positive number of seconds. Sessions that are
+     * locked by another thread are skipped instead of waited for.
+     *
+     * @see #addSessionReaperListener(SessionReaperListener)
+     * @since 8.0
+     */
+    public void reapSessions() {
+        long start = System.nanoTime();
+        Map<VaadinSession, Boolean> sessions = getSessions();
+        List<VaadinSession> sessionList;
+        synchronized (sessions) {
+            sessionList = new ArrayList<>(sessions.keySet());
+        }
+
+        int skipped = 0;
+        int removedUIs = 0;
+        int reclaimedConnectors = 0;
+        for (VaadinSession session : sessionList) {
+            Lock lock = session.getLockInstance();
+            if (lock == null || !lock.tryLock()) {
+                skipped++;
+                continue;
+            }
+            try {
+                if (isSessionActive(session)) {
+                    session.setNextInactiveUICheck(System.currentTimeMillis()
+                            + getInactiveUICheckInterval());
+                    closeInactiveUIs(session);
+                    for (UI ui : session.getUIs()) {
+                        if (ui.isClosing()) {
+                            removedUIs++;
+                            reclaimedConnectors += ui.getConnectorTracker()
+                                    .getConnectorCount();
+                        }
+                    }
+                    removeClosedUIs(session);
+                }
+            } catch (RuntimeException e) {
+                // Keep going so that one broken session does not stop the
+                // periodic reaper
+                getLogger().log(Level.WARNING,
+                        "Could not reap UIs of a session", e);
+            } finally {
+                session.unlock();
+            }
+        }
+
+        SessionReaperEvent event = new SessionReaperEvent(this,
+                sessionList.size(), skipped, removedUIs, reclaimedConnectors,
+                System.nanoTime() - start);
+        getLogger().log(Level.FINE,
+                "Session reaper removed {0} UIs with {1} connectors from {2} sessions",
+                new Object[] { removedUIs, reclaimedConnectors,
+                        sessionList.size() });
+        for (SessionReaperListener listener : sessionReaperListeners) {
+            try {
+                listener.sessionsReaped(event);
+            } catch (RuntimeException e) {
+                getLogger().log(Level.WARNING,
+                        "Session reaper listener threw an exception", e);
+            }
+        }
+    }
+
+    private Map<VaadinSession, Boolean> getSessions() {
+        Map<VaadinSession, Boolean> map = sessions;
+        if (map == null) {
+            synchronized (this) {
+                map = sessions;
+                if (map == null) {
+                    map = Collections.synchronizedMap(new WeakHashMap<>());
+                    sessions = map;
+                }
+            }
+        }
+        return map;
+    }
+
     /**
      * Attempts to find a Vaadin service session associated with this request.
      * <p>
@@ -657,7 +941,9 @@ public abstract class VaadinService implements Serializable {
             synchronized (VaadinService.class) {
                 lock = getSessionLock(wrappedSession);
                 if (lock == null) {
-                    lock = new ReentrantLock();
+                    lock = hasSessionLockListeners()
+                            ? new MeasuredSessionLock(this)
+                            : new ReentrantLock();
                     setSessionLock(wrappedSession, lock);
                 }
             }
@@ -697,6 +983,19 @@ public abstract class VaadinService implements Serializable {
         WrappedSession wrappedSession = getWrappedSession(request,
                 requestCanCreateSession);
 
+        if (!requestCanCreateSession
+                && ServletPortletHelper.isHeartbeatRequest(request)) {
+            /*
+             * Heartbeats never create sessions, so they can use an already
+             * loaded session without waiting for the lock while e.g. a long
+             * UIDL request is being handled.
+             */
+            VaadinSession session = findLoadedSession(wrappedSession);
+            if (session != null) {
+                return session;
+            }
+        }
+
         try {
             lockSession(wrappedSession);
         } catch (IllegalStateException e) {
@@ -712,6 +1011,26 @@ public abstract class VaadinService implements Serializable {
 
     }
 
+    /**
+     * Finds the Vaadin session stored in the given wrapped session without
+     * locking it. Only a session that has already been loaded by this service
+     * is returned, since loading a session after e.g. deserialization must be
+     * done while holding the lock.
+     *
+     * @param wrappedSession
+     *            the underlying HTTP session
+     * @return the already loaded Vaadin session or <code>null</code> if the
+     *         session must be looked up while holding the lock
+     */
+    private VaadinSession findLoadedSession(WrappedSession wrappedSession) {
+        VaadinSession session = readFromHttpSession(wrappedSession);
+        if (session == null || session.getService() != this
+                || session.getSession() == null) {
+            return null;
+        }
+        return session;
+    }
+
     /**
      * Finds or creates a Vaadin session. Assumes necessary synchronization has
      * been done by the caller to ensure this is not called simultaneously by
@@ -1190,7 +1509,11 @@ public abstract class VaadinService implements Serializable {
      */
     void cleanupSession(VaadinSession session) {
         if (isSessionActive(session)) {
-            closeInactiveUIs(session);
+            if (isInactiveUICheckDue(session)) {
+                session.setNextInactiveUICheck(System.currentTimeMillis()
+                        + getInactiveUICheckInterval());
+                closeInactiveUIs(session);
+            }
             removeClosedUIs(session);
         } else {
             if (session.getState() == State.OPEN) {
@@ -1256,6 +1579,32 @@ public abstract class VaadinService implements Serializable {
         }
     }
 
+    /**
+     * Checks whether it is time to look for inactive UIs in the given session.
+     * Inactive UIs are checked for at most once per heartbeat interval instead
+     * of at the end of every request, since going through all UIs in a session
+     * with many open UIs is not free.
+     *
+     * @param session
+     *            the session to check
+     * @return <code>true</code> if inactive UIs should be closed now,
+     *         <code>false</code> otherwise
+     */
+    private boolean isInactiveUICheckDue(VaadinSession session) {
+        return System.currentTimeMillis() >= session.getNextInactiveUICheck();
+    }
+
+    /**
+     * Returns the minimum time between two checks for inactive UIs in a
+     * session.
+     *
+     * @return the interval in milliseconds
+     */
+    private long getInactiveUICheckInterval() {
+        return Math.max(0,
+                getDeploymentConfiguration().getHeartbeatInterval()) * 1000L;
+    }
+
     /**
      * Returns the number of seconds that must pass without a valid heartbeat or
      * UIDL request being received from a UI before that UI is removed from its
@@ -1387,14 +1736,23 @@ public abstract class VaadinService implements Serializable {
             VaadinSession session) {
         if (session != null) {
             assert VaadinSession.getCurrent() == session;
-            session.lock();
-            try {
-                cleanupSession(session);
-                final long duration = (System.nanoTime() - (Long) request
-                        .getAttribute(REQUEST_START_TIME_ATTRIBUTE)) / 1000000;
-                session.setLastRequestDuration(duration);
-            } finally {
-                session.unlock();
+            /*
+             * Heartbeats do not change the session, so there is nothing to
+             * clean up unless it is time for the periodic check for inactive
+             * UIs and sessions.
+             */
+            if (!ServletPortletHelper.isHeartbeatRequest(request)
+                    || isInactiveUICheckDue(session)) {
+                session.lock();
+                try {
+                    cleanupSession(session);
+                    final long duration = (System.nanoTime() - (Long) request
+                            .getAttribute(REQUEST_START_TIME_ATTRIBUTE))
+                            / 1000000;
+                    session.setLastRequestDuration(duration);
+                } finally {
+                    session.unlock();
+                }
             }
         }
         CurrentInstance.clearAll();
@@ -1934,6 +2292,171 @@ public abstract class VaadinService implements Serializable {
      */
     public void destroy() {
         eventRouter.fireEvent(new ServiceDestroyEvent(this));
+
+        ForkJoinPool pool;
+        synchronized (this) {
+            pool = forkJoinPool;
+            // Work submitted after destroy should not be rejected
+            forkJoinPool = ForkJoinPool.commonPool();
+        }
+        if (pool != null) {
+            pool.shutdown();
+        }
+        ScheduledExecutorService executor = scheduledExecutor;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        executor = sessionReaperExecutor;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Gets the fork-join pool shared by all sessions of this service. The pool
+     * is used for running CPU intensive work, such as filtering and sorting
+     * large in-memory data sets, in parallel. It is created using
+     * {@link #createForkJoinPool()} the first time it is needed and shut down
+     * when this service is destroyed, after which the
+     * {@link ForkJoinPool#commonPool() common pool} is returned instead.
+     *
+     * @see com.vaadin.data.provider.ListDataProvider#setParallelThreshold(int)
+     *
+     * @since 8.0
+     * @return the fork-join pool of this service, not <code>null</code>
+     */
+    public ForkJoinPool getForkJoinPool() {
+        ForkJoinPool pool = forkJoinPool;
+        if (pool == null) {
+            synchronized (this) {
+                pool = forkJoinPool;
+                if (pool == null) {
+                    pool = createForkJoinPool();
+                    forkJoinPool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * Gets the content hash of a static resource from the resource manifests
+     * generated when building theme and widgetset jars. The hash can be added
+     * to the resource URL so that browsers can cache the resource without
+     * revalidating it.
+     *
+     * @param path
+     *            the path of the resource, starting with <code>/VAADIN/</code>
+     * @return the content hash, or <code>null</code> if the resource is not
+     *         listed in any manifest
+     */
+    String getStaticResourceHash(String path) {
+        Map<String, String> hashes = staticResourceHashes;
+        if (hashes == null) {
+            hashes = loadStaticResourceHashes();
+            staticResourceHashes = hashes;
+        }
+        return hashes.get(path);
+    }
+
+    private Map<String, String> loadStaticResourceHashes() {
+        Map<String, String> hashes = new HashMap<>();
+        for (String manifest : new String[] {
+                "VAADIN/themes/resource-manifest.properties",
+                "VAADIN/widgetsets/resource-manifest.properties" }) {
+            try {
+                Enumeration<URL> urls = getClassLoader().getResources(manifest);
+                while (urls.hasMoreElements()) {
+                    URL url = urls.nextElement();
+                    Properties properties = new Properties();
+                    try (InputStream is = url.openStream()) {
+                        properties.load(is);
+                    }
+                    for (String name : properties.stringPropertyNames()) {
+                        hashes.put(name, properties.getProperty(name));
+                    }
+                }
+            } catch (IOException e) {
+                getLogger().log(Level.WARNING,
+                        "Could not read static resource manifest " + manifest,
+                        e);
+            }
+        }
+        return Collections.unmodifiableMap(hashes);
+    }
+
+    /**
+     * Creates the fork-join pool returned by {@link #getForkJoinPool()}. The
+     * default implementation creates a pool with parallelism equal to the
+     * number of available processors.
+     *
+     * @since 8.0
+     * @return a new fork-join pool, not <code>null</code>
+     */
+    protected ForkJoinPool createForkJoinPool() {
+        return new ForkJoinPool();
+    }
+
+    /**
+     * Gets the executor shared by all sessions of this service for running
+     * short tasks after a delay, such as deferred pushes. Tasks that access a
+     * session must lock it, typically using {@link UI#access(Runnable)}. The
+     * executor is created using {@link #createScheduledExecutor()} the first
+     * time it is needed and shut down when this service is destroyed.
+     *
+     * @since 8.0
+     * @return the scheduled executor of this service, not <code>null</code>
+     */
+    public ScheduledExecutorService getScheduledExecutor() {
+        ScheduledExecutorService executor = scheduledExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = scheduledExecutor;
+                if (executor == null) {
+                    executor = createScheduledExecutor();
+                    scheduledExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    /**
+     * Creates the executor returned by {@link #getScheduledExecutor()}. The
+     * default implementation creates an executor with a single daemon thread.
+     *
+     * @since 8.0
+     * @return a new scheduled executor, not <code>null</code>
+     */
+    protected ScheduledExecutorService createScheduledExecutor() {
+        String threadName = "Vaadin scheduler for " + getServiceName();
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Creates the executor that runs the session reaper, which closes inactive
+     * UIs and removes closed UIs in all sessions of this service. The executor
+     * is only created if the reaper is enabled using
+     * {@link Constants#SERVLET_PARAMETER_SESSION_REAPER_INTERVAL}, and it is
+     * shut down when this service is destroyed. The default implementation
+     * creates an executor with a single daemon thread, separate from
+     * {@link #getScheduledExecutor()} so that sweeping through all sessions
+     * does not delay e.g. throttled pushes.
+     *
+     * @since 8.0
+     * @return a new scheduled executor, not <code>null</code>
+     */
+    protected ScheduledExecutorService createSessionReaperExecutor() {
+        String threadName = "Vaadin session reaper for " + getServiceName();
+        return Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     /**
@@ -1974,6 +2497,7 @@ public abstract class VaadinService implements Serializable {
         assert VaadinSession.hasLock(this, wrappedSession);
         writeToHttpSession(wrappedSession, session);
         session.refreshTransients(wrappedSession, this);
+        getSessions().put(session, Boolean.TRUE);
     }
 
     /**
@@ -2009,7 +2533,16 @@ public abstract class VaadinService implements Serializable {
         if (vaadinSession == null) {
             return null;
         }
+        /*
+         * Only register the session the first time it is loaded by this
+         * service, e.g. after deserialization, to avoid locking the shared map
+         * on every request
+         */
+        boolean firstLoad = vaadinSession.getService() != this;
         vaadinSession.refreshTransients(wrappedSession, this);
+        if (firstLoad) {
+            getSessions().put(vaadinSession, Boolean.TRUE);
+        }
         return vaadinSession;
     }
 
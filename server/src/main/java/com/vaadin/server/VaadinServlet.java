@@ -37,11 +37,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Enumeration;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -73,6 +73,11 @@ public class VaadinServlet extends HttpServlet implements Constants {
         private final List<String> sourceUris;
         private final long timestamp;
         private final String scssFileName;
+        /**
+         * The files to check for modifications, or <code>null</code> if some
+         * source could not be found.
+         */
+        private final transient List<File> sourceFiles;
 
         public ScssCacheEntry(String scssFileName, String css,
                 List<String> sourceUris) {
@@ -80,6 +85,7 @@ public class VaadinServlet extends HttpServlet implements Constants {
             this.css = css;
             this.sourceUris = sourceUris;
 
+            sourceFiles = resolveSourceFiles();
             timestamp = getLastModified();
         }
 
@@ -96,6 +102,8 @@ public class VaadinServlet extends HttpServlet implements Constants {
 
             // Not set for cache entries read from disk
             scssFileName = null;
+
+            sourceFiles = resolveSourceFiles();
         }
 
         public String asJson() {
@@ -117,20 +125,36 @@ public class VaadinServlet extends HttpServlet implements Constants {
             return css;
         }
 
-        private long getLastModified() {
-            long newest = 0;
+        /**
+         * Finds the files in the file system that the source URIs refer to, so
+         * that checking for modifications only needs to read the timestamps of
+         * those files. Sources found only inside JARs cannot change and are
+         * not checked.
+         */
+        private List<File> resolveSourceFiles() {
+            List<File> files = new ArrayList<>();
             for (String uri : sourceUris) {
                 File file = new File(uri);
-                URL resource = getService().getClassLoader().getResource(uri);
-                long lastModified = -1L;
                 if (file.exists()) {
-                    lastModified = file.lastModified();
-                } else if (resource != null
-                        && resource.getProtocol().equals("file")) {
+                    files.add(file);
+                    continue;
+                }
+
+                URL resource = getService().getClassLoader().getResource(uri);
+                if (resource == null) {
+                    /*
+                     * Ignore missing files found in the classpath, report
+                     * problem and abort for other files.
+                     */
+                    getLogger().log(Level.WARNING,
+                            "Could not resolve timestamp for {0}, Scss on the fly caching will be disabled",
+                            uri);
+                    return null;
+                } else if (resource.getProtocol().equals("file")) {
                     try {
                         file = new File(resource.toURI());
                         if (file.exists()) {
-                            lastModified = file.lastModified();
+                            files.add(file);
                         }
                     } catch (URISyntaxException e) {
                         getLogger().log(Level.WARNING,
@@ -138,20 +162,20 @@ public class VaadinServlet extends HttpServlet implements Constants {
                                 e);
                     }
                 }
-                if (lastModified == -1L && resource == null) {
-                    /*
-                     * Ignore missing files found in the classpath, report
-                     * problem and abort for other files.
-                     */
-                    getLogger().log(Level.WARNING,
-                            "Could not resolve timestamp for {0}, Scss on the fly caching will be disabled",
-                            uri);
-                    // -1 means this cache entry will never be valid
-                    return -1;
-                }
-                newest = Math.max(newest, lastModified);
+            }
+            return files;
+        }
+
+        private long getLastModified() {
+            if (sourceFiles == null) {
+                // -1 means this cache entry will never be valid
+                return -1;
             }
 
+            long newest = 0;
+            for (File file : sourceFiles) {
+                newest = Math.max(newest, file.lastModified());
+            }
             return newest;
         }
 
@@ -183,6 +207,8 @@ public class VaadinServlet extends HttpServlet implements Constants {
 
     private VaadinServletService servletService;
 
+    private transient StaticResourceCache staticResourceCache;
+
     /**
      * Called by the servlet container to indicate to a servlet that the servlet
      * is being placed into service.
@@ -231,11 +257,54 @@ public class VaadinServlet extends HttpServlet implements Constants {
         // Sets current service even though there are no request and response
         servletService.setCurrentInstances(null, null);
 
+        staticResourceCache = createStaticResourceCache(
+                deploymentConfiguration);
+
         servletInitialized();
 
         CurrentInstance.clearAll();
     }
 
+    private StaticResourceCache createStaticResourceCache(
+            DeploymentConfiguration deploymentConfiguration) {
+        // Resources may change on the fly during development
+        if (!deploymentConfiguration.isProductionMode()) {
+            return null;
+        }
+
+        // Subclasses overriding how resources are written rely on it being
+        // used for every resource
+        for (Class<?> type = getClass(); type != VaadinServlet.class; type = type
+                .getSuperclass()) {
+            try {
+                type.getDeclaredMethod("writeStaticResourceResponse",
+                        HttpServletRequest.class, HttpServletResponse.class,
+                        URL.class);
+                return null;
+            } catch (NoSuchMethodException e) {
+                // Not overridden in this class
+            }
+        }
+
+        long maxSize;
+        try {
+            maxSize = Long.parseLong(deploymentConfiguration
+                    .getApplicationOrSystemProperty(
+                            SERVLET_PARAMETER_STATIC_RESOURCE_CACHE_SIZE,
+                            Long.toString(DEFAULT_STATIC_RESOURCE_CACHE_SIZE)));
+        } catch (NumberFormatException e) {
+            getLogger().warning("The "
+                    + SERVLET_PARAMETER_STATIC_RESOURCE_CACHE_SIZE
+                    + " parameter should be the number of bytes to cache,"
+                    + " using the default value");
+            maxSize = DEFAULT_STATIC_RESOURCE_CACHE_SIZE;
+        }
+        if (maxSize <= 0) {
+            return null;
+        }
+        return new StaticResourceCache(maxSize);
+    }
+
     private void readUiFromEnclosingClass(Properties initParameters) {
         Class<?> enclosingClass = getClass().getEnclosingClass();
 
@@ -672,26 +741,33 @@ public class VaadinServlet extends HttpServlet implements Constants {
                     ';' }));
 
     /**
-     * Mutex for preventing to scss compilations to take place simultaneously.
-     * This is a workaround needed as the scss compiler currently is not thread
-     * safe (#10292).
-     * <p>
-     * In addition, this is also used to protect the cached compilation results.
+     * The query parameter with the content hash of a static resource. A
+     * resource requested with a parameter matching its content hash is cached
+     * by the browser without revalidation.
      */
-    private static final Object SCSS_MUTEX = new Object();
+    static final String RESOURCE_VERSION_PARAMETER = "v";
+
+    private static final int IMMUTABLE_RESOURCE_CACHE_TIME = 60 * 60 * 24
+            * 365;
 
     /**
-     * Global cache of scss compilation results. This map is protected from
-     * concurrent access by {@link #SCSS_MUTEX}.
+     * Global cache of scss compilation results, keyed by the scss file name.
      */
-    private final Map<String, ScssCacheEntry> scssCache = new HashMap<>();
+    private final Map<String, ScssCacheEntry> scssCache = new ConcurrentHashMap<>();
+
+    /**
+     * Mutex for preventing two scss compilations from taking place
+     * simultaneously. This is a workaround needed as the scss compiler
+     * currently is not thread safe (#10292). Cached compilation results are
+     * read without holding the mutex.
+     */
+    private static final Object SCSS_MUTEX = new Object();
 
     /**
      * Keeps track of whether a warning about not being able to persist cache
-     * files has already been printed. The flag is protected from concurrent
-     * access by {@link #SCSS_MUTEX}.
+     * files has already been printed.
      */
-    private static boolean scssCompileWarWarningEmitted = false;
+    private static volatile boolean scssCompileWarWarningEmitted = false;
 
     /**
      * Returns the default theme. Must never return null.
@@ -740,6 +816,17 @@ public class VaadinServlet extends HttpServlet implements Constants {
             throws IOException, ServletException {
 
         final ServletContext sc = getServletContext();
+
+        StaticResourceCache cache = staticResourceCache;
+        if (cache != null) {
+            StaticResourceCache.Entry entry = cache.get(filename);
+            if (entry != null) {
+                writeCachedStaticResourceResponse(filename, request, response,
+                        entry);
+                return;
+            }
+        }
+
         URL resourceUrl = findResourceURL(filename);
 
         if (resourceUrl == null) {
@@ -768,14 +855,25 @@ public class VaadinServlet extends HttpServlet implements Constants {
             return;
         }
 
-        String cacheControl = "public, max-age=0, must-revalidate";
-        int resourceCacheTime = getCacheTime(filename);
-        if (resourceCacheTime > 0) {
-            cacheControl = "max-age=" + String.valueOf(resourceCacheTime);
+        if (cache != null) {
+            StaticResourceCache.Entry entry = null;
+            try {
+                entry = cache.load(resourceUrl, sc.getMimeType(filename),
+                        isCompressibleResource(filename));
+            } catch (IOException e) {
+                // Served without the cache below
+                getLogger().log(Level.FINE,
+                        "Could not cache static resource " + resourceUrl, e);
+            }
+            if (entry != null) {
+                cache.put(filename, entry);
+                writeCachedStaticResourceResponse(filename, request, response,
+                        entry);
+                return;
+            }
         }
-        response.setHeader("Cache-Control", cacheControl);
-        response.setDateHeader("Expires",
-                System.currentTimeMillis() + resourceCacheTime * 1000);
+
+        setStaticResourceCacheHeaders(filename, response);
 
         // Find the modification timestamp
         long lastModifiedTime = 0;
@@ -824,6 +922,76 @@ public class VaadinServlet extends HttpServlet implements Constants {
         writeStaticResourceResponse(request, response, resourceUrl);
     }
 
+    private void setStaticResourceCacheHeaders(String filename,
+            HttpServletResponse response) {
+        String cacheControl = "public, max-age=0, must-revalidate";
+        int resourceCacheTime = getCacheTime(filename);
+        if (resourceCacheTime > 0) {
+            cacheControl = "max-age=" + String.valueOf(resourceCacheTime);
+        }
+        response.setHeader("Cache-Control", cacheControl);
+        response.setDateHeader("Expires",
+                System.currentTimeMillis() + resourceCacheTime * 1000);
+    }
+
+    private void writeCachedStaticResourceResponse(String filename,
+            HttpServletRequest request, HttpServletResponse response,
+            StaticResourceCache.Entry entry) throws IOException {
+        if (entry.getContentHash()
+                .equals(request.getParameter(RESOURCE_VERSION_PARAMETER))) {
+            // The URL changes whenever the content changes
+            response.setHeader("Cache-Control",
+                    "public, max-age=" + IMMUTABLE_RESOURCE_CACHE_TIME
+                            + ", immutable");
+            response.setDateHeader("Expires", System.currentTimeMillis()
+                    + IMMUTABLE_RESOURCE_CACHE_TIME * 1000L);
+        } else {
+            setStaticResourceCacheHeaders(filename, response);
+        }
+
+        byte[] content = entry.getContent();
+        String etag = entry.getETag();
+        boolean gzip = false;
+        if (entry.getGzippedContent() != null) {
+            response.setHeader("Vary", "Accept-Encoding");
+            if (allowServePrecompressedResource(request, entry.getUrl())) {
+                content = entry.getGzippedContent();
+                etag = entry.getGzippedETag();
+                gzip = true;
+            }
+        }
+
+        long lastModifiedTime = entry.getLastModified();
+        response.setHeader("ETag", etag);
+        response.setDateHeader("Last-Modified", lastModifiedTime);
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch != null) {
+            // If-Modified-Since is ignored when If-None-Match is present
+            if (isETagMatch(ifNoneMatch, etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        } else if (browserHasNewestVersion(request, lastModifiedTime)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        if (entry.getMimeType() != null) {
+            response.setContentType(entry.getMimeType());
+        }
+        if (gzip) {
+            response.setHeader("Content-Encoding", "gzip");
+        }
+        response.setContentLength(content.length);
+        response.getOutputStream().write(content);
+    }
+
+    private static boolean isCompressibleResource(String filename) {
+        return filename.endsWith(".js") || filename.endsWith(".css")
+                || filename.endsWith(".html");
+    }
+
     /**
      * Calculates the cache lifetime for the given filename in seconds. By
      * default filenames containing ".nocache." return 0, filenames containing
@@ -1025,7 +1193,29 @@ public class VaadinServlet extends HttpServlet implements Constants {
             return true;
         }
 
+        ScssCacheEntry cacheEntry = scssCache.get(scssFilename);
+        if (cacheEntry == null || !cacheEntry.isStillValid()) {
+            cacheEntry = compileScssIfNecessary(filename, scssFilename, sc);
+        }
+
+        if (cacheEntry == null) {
+            // compilation did not produce any result, but logged a message
+            return false;
+        }
+
+        // This is for development mode only so instruct the browser to
+        // never cache it
+        response.setHeader("Cache-Control", "no-cache");
+        final String mimetype = getService().getMimeType(filename);
+        writeResponse(response, mimetype, cacheEntry.getCss());
+
+        return true;
+    }
+
+    private ScssCacheEntry compileScssIfNecessary(String filename,
+            String scssFilename, ServletContext sc) throws IOException {
         synchronized (SCSS_MUTEX) {
+            // Another thread might have compiled the file while waiting
             ScssCacheEntry cacheEntry = scssCache.get(scssFilename);
 
             if (cacheEntry == null) {
@@ -1039,22 +1229,17 @@ public class VaadinServlet extends HttpServlet implements Constants {
 
             if (cacheEntry == null || !cacheEntry.isStillValid()) {
                 cacheEntry = compileScssOnTheFly(filename, scssFilename, sc);
-                persistCacheEntry(cacheEntry);
+                if (cacheEntry != null) {
+                    persistCacheEntry(cacheEntry);
+                }
             }
-            scssCache.put(scssFilename, cacheEntry);
 
             if (cacheEntry == null) {
-                // compilation did not produce any result, but logged a message
-                return false;
+                scssCache.remove(scssFilename);
+            } else {
+                scssCache.put(scssFilename, cacheEntry);
             }
-
-            // This is for development mode only so instruct the browser to
-            // never cache it
-            response.setHeader("Cache-Control", "no-cache");
-            final String mimetype = getService().getMimeType(filename);
-            writeResponse(response, mimetype, cacheEntry.getCss());
-
-            return true;
+            return cacheEntry;
         }
     }
 
@@ -1177,6 +1362,34 @@ public class VaadinServlet extends HttpServlet implements Constants {
         }
     }
 
+    /**
+     * Checks whether an If-None-Match header value matches the given entity
+     * tag. Uses the weak comparison required for If-None-Match, i.e. a weak
+     * validator prefix is ignored.
+     *
+     * @param ifNoneMatch
+     *            the value of the If-None-Match header, not <code>null</code>
+     * @param etag
+     *            the quoted entity tag of the current representation
+     * @return <code>true</code> if the header matches the entity tag,
+     *         <code>false</code> otherwise
+     */
+    static boolean isETagMatch(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*")) {
+                return true;
+            }
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Checks if the browser has an up to date cached version of requested
      * resource. Currently the check is performed using the "If-Modified-Since"
@@ -33,6 +33,7 @@ import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -212,7 +213,11 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     private LinkedList<RequestHandler> requestHandlers = new LinkedList<>();
 
     private int nextUIId = 0;
-    private Map<Integer, UI> uIs = new HashMap<>();
+    /*
+     * Concurrent so that heartbeat requests can find their UI without locking
+     * the session
+     */
+    private Map<Integer, UI> uIs = new ConcurrentHashMap<>();
 
     private final Map<String, Integer> embedIdMap = new HashMap<>();
 
@@ -236,6 +241,8 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
 
     private transient WrappedSession session;
 
+    private transient volatile long nextInactiveUICheck;
+
     private final Map<String, Object> attributes = new HashMap<>();
 
     private LinkedList<UIProvider> uiProviders = new LinkedList<>();
@@ -500,6 +507,9 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
                 session) : "Cannot change the lock from one instance to another";
         assert hasLock(service, session);
         lock = service.getSessionLock(session);
+        if (lock instanceof MeasuredSessionLock) {
+            ((MeasuredSessionLock) lock).setSession(this);
+        }
     }
 
     public void setCommunicationManager(
@@ -775,6 +785,46 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         return uIs.get(uiId);
     }
 
+    /**
+     * Returns a UI with the given id without requiring the session to be
+     * locked. The returned UI may only be used for operations that are safe to
+     * do without holding the session lock, such as
+     * {@link UI#setLastHeartbeatTimestamp(long) updating the heartbeat
+     * timestamp}.
+     * <p>
+     * This is meant for framework internal use.
+     * </p>
+     *
+     * @param uiId
+     *            The UI id
+     * @return The UI with the given id or null if not found
+     * @since 8.0
+     */
+    public UI getUIByIdWithoutLock(int uiId) {
+        return uIs.get(uiId);
+    }
+
+    /**
+     * Gets the time when inactive UIs in this session should be checked for
+     * the next time.
+     *
+     * @return the time of the next check, in milliseconds since the epoch
+     */
+    long getNextInactiveUICheck() {
+        return nextInactiveUICheck;
+    }
+
+    /**
+     * Sets the time when inactive UIs in this session should be checked for
+     * the next time.
+     *
+     * @param nextInactiveUICheck
+     *            the time of the next check, in milliseconds since the epoch
+     */
+    void setNextInactiveUICheck(long nextInactiveUICheck) {
+        this.nextInactiveUICheck = nextInactiveUICheck;
+    }
+
     /**
      * Checks if the current thread has exclusive access to this VaadinSession
      *
@@ -980,8 +1030,8 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * block after {@link #lock()} to ensure that the lock is always released.
      * <p>
      * For UIs in this session that have its push mode set to
-     * {@link PushMode#AUTOMATIC automatic}, pending changes will be pushed to
-     * their respective clients.
+     * {@link PushMode#AUTOMATIC automatic} or {@link PushMode#THROTTLED
+     * throttled}, pending changes will be pushed to their respective clients.
      *
      * @see #lock()
      * @see UI#push()
@@ -999,8 +1049,8 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
                 getService().runPendingAccessTasks(this);
 
                 for (UI ui : getUIs()) {
-                    if (ui.getPushConfiguration()
-                            .getPushMode() == PushMode.AUTOMATIC) {
+                    if (ui.getPushConfiguration().getPushMode()
+                            .isAutomatic()) {
                         Map<Class<?>, CurrentInstance> oldCurrent = CurrentInstance
                                 .setCurrent(ui);
                         try {
@@ -36,7 +36,9 @@ import org.atmosphere.cpr.AtmosphereResource.TRANSPORT;
 import org.atmosphere.util.Version;
 
 import com.vaadin.shared.communication.PushConstants;
+import com.vaadin.shared.communication.PushMode;
 import com.vaadin.ui.UI;
+import com.vaadin.ui.UIDetachedException;
 
 /**
  * A {@link PushConnection} implementation using the Atmosphere push support
@@ -136,6 +138,8 @@ public class AtmospherePushConnection implements PushConnection {
     private transient AtmosphereResource resource;
     private transient FragmentedMessage incomingMessage;
     private transient Future<Object> outgoingMessage;
+    private transient long lastPushTime;
+    private transient boolean pushScheduled;
 
     public AtmospherePushConnection(UI ui) {
         this.ui = ui;
@@ -150,6 +154,12 @@ public class AtmospherePushConnection implements PushConnection {
      * Pushes pending state changes and client RPC calls to the client. If
      * {@code isConnected()} is false, defers the push until a connection is
      * established.
+     * <p>
+     * If the push mode of the UI is {@link PushMode#THROTTLED}, an
+     * asynchronous push is deferred if the minimum push interval has not passed
+     * since the previous push or if the previous message is still being sent.
+     * All changes made until the deferred push is done are sent in the same
+     * message.
      *
      * @param async
      *            True if this push asynchronously originates from the server,
@@ -163,14 +173,77 @@ public class AtmospherePushConnection implements PushConnection {
                 state = State.RESPONSE_PENDING;
             }
         } else {
-            try {
-                Writer writer = new StringWriter();
-                new UidlWriter().write(getUI(), writer, async);
-                sendMessage("for(;;);[{" + writer.toString() + "}]");
-            } catch (Exception e) {
-                throw new RuntimeException("Push failed", e);
+            if (async && getUI().getPushConfiguration()
+                    .getPushMode() == PushMode.THROTTLED) {
+                long delay = getThrottleDelay();
+                if (delay > 0) {
+                    schedulePush(delay);
+                    return;
+                }
             }
+            sendPush(async);
+            lastPushTime = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Writes the pending changes of the UI and sends them to the client.
+     *
+     * @param async
+     *            True if this push asynchronously originates from the server,
+     *            false if it is a response to a client request.
+     */
+    void sendPush(boolean async) {
+        try {
+            Writer writer = new StringWriter();
+            new UidlWriter().write(getUI(), writer, async);
+            sendMessage("for(;;);[{" + writer.toString() + "}]");
+        } catch (Exception e) {
+            throw new RuntimeException("Push failed", e);
+        }
+    }
+
+    /**
+     * Gets the time to wait before a throttled push can be done.
+     *
+     * @return the time to wait in milliseconds, or a non-positive value if the
+     *         push can be done right away
+     */
+    private long getThrottleDelay() {
+        int interval = getUI().getPushConfiguration().getMinimumPushInterval();
+        if (outgoingMessage != null && !outgoingMessage.isDone()) {
+            // Let changes pile up while the previous message is being sent
+            return interval;
+        }
+        return lastPushTime + interval - System.currentTimeMillis();
+    }
+
+    /**
+     * Schedules a push to be done after the given delay, unless one has
+     * already been scheduled.
+     *
+     * @param delay
+     *            the delay in milliseconds
+     */
+    private void schedulePush(long delay) {
+        if (pushScheduled) {
+            return;
         }
+        pushScheduled = true;
+
+        UI ui = getUI();
+        ui.getSession().getService().getScheduledExecutor().schedule(() -> {
+            try {
+                ui.access(() -> {
+                    pushScheduled = false;
+                    if (ui.getPushConfiguration().getPushMode().isEnabled()) {
+                        ui.push();
+                    }
+                });
+            } catch (UIDetachedException e) {
+                // Nothing to push for a detached UI
+            }
+        }, delay, TimeUnit.MILLISECONDS);
     }
 
     /**
@@ -36,7 +36,6 @@ import elemental.json.Json;
 import elemental.json.JsonArray;
 import elemental.json.JsonException;
 import elemental.json.JsonValue;
-import elemental.json.impl.JsonUtil;
 
 /**
  * Serializes {@link ClientRpc client RPC} invocations to JSON.
@@ -62,7 +61,7 @@ public class ClientRpcWriter implements Serializable {
         Collection<ClientMethodInvocation> pendingInvocations = collectPendingRpcCalls(
                 ui.getConnectorTracker().getDirtyVisibleConnectors());
 
-        JsonArray rpcCalls = Json.createArray();
+        JsonStreamWriter rpcCalls = JsonStreamWriter.beginArray(writer);
         for (ClientMethodInvocation invocation : pendingInvocations) {
             // add invocation to rpcCalls
             try {
@@ -92,7 +91,7 @@ public class ClientRpcWriter implements Serializable {
                     paramJson.set(i, encodeResult.getEncodedValue());
                 }
                 invocationJson.set(3, paramJson);
-                rpcCalls.set(rpcCalls.length(), invocationJson);
+                rpcCalls.writeValue(invocationJson);
             } catch (JsonException e) {
                 throw new PaintException(
                         "Failed to serialize RPC method call parameters for connector "
@@ -103,7 +102,7 @@ public class ClientRpcWriter implements Serializable {
                         e);
             }
         }
-        writer.write(JsonUtil.stringify(rpcCalls));
+        rpcCalls.end();
     }
 
     /**
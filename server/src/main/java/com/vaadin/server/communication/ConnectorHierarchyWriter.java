@@ -19,22 +19,23 @@ package com.vaadin.server.communication;
 import java.io.IOException;
 import java.io.Serializable;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 import com.vaadin.server.AbstractClientConnector;
 import com.vaadin.server.ClientConnector;
 import com.vaadin.server.LegacyCommunicationManager;
-import com.vaadin.server.PaintException;
 import com.vaadin.server.VaadinRequest;
 import com.vaadin.server.VaadinService;
+import com.vaadin.shared.JsonConstants;
+import com.vaadin.ui.ConnectorTracker;
 import com.vaadin.ui.UI;
 
 import elemental.json.Json;
 import elemental.json.JsonArray;
-import elemental.json.JsonException;
 import elemental.json.JsonObject;
-import elemental.json.impl.JsonUtil;
 
 /**
  * Serializes a connector hierarchy to JSON.
@@ -44,9 +45,16 @@ import elemental.json.impl.JsonUtil;
  */
 public class ConnectorHierarchyWriter implements Serializable {
 
+    /**
+     * The minimum number of children previously sent to the client for a
+     * connector before only the changed part of its hierarchy is sent.
+     */
+    private static final int MIN_DELTA_HIERARCHY_SIZE = 10;
+
     /**
      * Writes a JSON object containing the connector hierarchy (parent-child
-     * mappings) of the dirty connectors in the given UI.
+     * mappings) of the dirty connectors in the given UI. The hierarchy of a
+     * connector is omitted if the client already has the same children for it.
      *
      * @param ui
      *            The {@link UI} whose hierarchy to write.
@@ -60,41 +68,112 @@ public class ConnectorHierarchyWriter implements Serializable {
     public void write(UI ui, Writer writer, Set<String> stateUpdateConnectors)
             throws IOException {
 
-        Collection<ClientConnector> dirtyVisibleConnectors = ui
-                .getConnectorTracker().getDirtyVisibleConnectors();
+        ConnectorTracker connectorTracker = ui.getConnectorTracker();
+        Collection<ClientConnector> dirtyVisibleConnectors = connectorTracker
+                .getDirtyVisibleConnectors();
 
-        JsonObject hierarchyInfo = Json.createObject();
+        // Only collected when assertions are enabled, see storeSentHierarchy
+        JsonObject sentHierarchy = null;
+        assert (sentHierarchy = Json.createObject()) != null;
+
+        JsonStreamWriter hierarchyInfo = JsonStreamWriter.beginObject(writer);
         for (ClientConnector connector : dirtyVisibleConnectors) {
             String connectorId = connector.getConnectorId();
-            JsonArray children = Json.createArray();
+            List<String> children = new ArrayList<>();
 
             for (ClientConnector child : AbstractClientConnector
                     .getAllChildrenIterable(connector)) {
                 if (LegacyCommunicationManager
                         .isConnectorVisibleToClient(child)) {
-                    children.set(children.length(), child.getConnectorId());
+                    children.add(child.getConnectorId());
                 }
             }
 
-            // Omit for leaf nodes with state changes
-            if (children.length() > 0
-                    || !stateUpdateConnectors.contains(connectorId)) {
-                try {
-                    hierarchyInfo.put(connectorId, children);
-                } catch (JsonException e) {
-                    throw new PaintException(
-                            "Failed to send hierarchy information about "
-                                    + connectorId + " to the client: "
-                                    + e.getMessage(),
-                            e);
+            List<String> sentChildren = connectorTracker
+                    .getSentHierarchy(connector);
+            boolean clientUpToDate;
+            if (stateUpdateConnectors.contains(connectorId)) {
+                // The client assumes an empty hierarchy for connectors with
+                // state changes but no hierarchy entry, so omit only for leaf
+                // nodes
+                clientUpToDate = children.isEmpty();
+            } else {
+                clientUpToDate = children.equals(sentChildren);
+            }
+
+            if (!clientUpToDate) {
+                JsonObject delta = createDelta(sentChildren, children);
+                if (delta != null) {
+                    hierarchyInfo.writeEntry(connectorId, delta);
+                } else {
+                    hierarchyInfo.writeEntry(connectorId, children);
                 }
+                if (sentHierarchy != null) {
+                    sentHierarchy.put(connectorId, toJsonArray(children));
+                }
+            }
+            if (!children.equals(sentChildren)) {
+                connectorTracker.setSentHierarchy(connector, children);
             }
         }
+        hierarchyInfo.end();
+
         // Dummy assert just for conditionally storing away data that will be
         // used by the real assert later on
-        assert storeSentHierarchy(hierarchyInfo, stateUpdateConnectors);
+        assert storeSentHierarchy(sentHierarchy, stateUpdateConnectors);
+    }
 
-        writer.write(JsonUtil.stringify(hierarchyInfo));
+    /**
+     * Creates a hierarchy delta that turns the children known by the client
+     * into the current children, if the delta is considerably smaller than the
+     * full list of children.
+     *
+     * @param sentChildren
+     *            the child ids known by the client
+     * @param children
+     *            the current child ids
+     * @return a JSON object describing the delta, or <code>null</code> if the
+     *         full list of children should be sent
+     */
+    private static JsonObject createDelta(List<String> sentChildren,
+            List<String> children) {
+        if (sentChildren.size() < MIN_DELTA_HIERARCHY_SIZE) {
+            return null;
+        }
+
+        int maxCommon = Math.min(sentChildren.size(), children.size());
+        int prefix = 0;
+        while (prefix < maxCommon
+                && sentChildren.get(prefix).equals(children.get(prefix))) {
+            prefix++;
+        }
+        int suffix = 0;
+        while (suffix < maxCommon - prefix
+                && sentChildren.get(sentChildren.size() - 1 - suffix).equals(
+                        children.get(children.size() - 1 - suffix))) {
+            suffix++;
+        }
+
+        List<String> inserted = children.subList(prefix,
+                children.size() - suffix);
+        if (inserted.size() * 2 >= children.size()) {
+            return null;
+        }
+
+        JsonObject delta = Json.createObject();
+        delta.put(JsonConstants.HIERARCHY_DELTA_START, prefix);
+        delta.put(JsonConstants.HIERARCHY_DELTA_REMOVE_COUNT,
+                sentChildren.size() - prefix - suffix);
+        delta.put(JsonConstants.HIERARCHY_DELTA_INSERT, toJsonArray(inserted));
+        return delta;
+    }
+
+    private static JsonArray toJsonArray(List<String> connectorIds) {
+        JsonArray array = Json.createArray();
+        for (String connectorId : connectorIds) {
+            array.set(array.length(), connectorId);
+        }
+        return array;
     }
 
     private boolean storeSentHierarchy(JsonObject hierarchyInfo,
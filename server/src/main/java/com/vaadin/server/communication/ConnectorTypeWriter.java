@@ -22,15 +22,10 @@ import java.io.Writer;
 import java.util.Collection;
 
 import com.vaadin.server.ClientConnector;
-import com.vaadin.server.PaintException;
 import com.vaadin.server.PaintTarget;
+import com.vaadin.ui.ConnectorTracker;
 import com.vaadin.ui.UI;
 
-import elemental.json.Json;
-import elemental.json.JsonException;
-import elemental.json.JsonObject;
-import elemental.json.impl.JsonUtil;
-
 /**
  * Serializes connector type mappings to JSON.
  *
@@ -41,7 +36,8 @@ public class ConnectorTypeWriter implements Serializable {
 
     /**
      * Writes a JSON object containing connector-ID-to-type-ID mappings for each
-     * dirty Connector in the given UI.
+     * dirty Connector in the given UI that has not yet been initialized on the
+     * client side. The client already knows the type of all other connectors.
      *
      * @param ui
      *            The {@link UI} containing dirty connectors
@@ -55,22 +51,20 @@ public class ConnectorTypeWriter implements Serializable {
     public void write(UI ui, Writer writer, PaintTarget target)
             throws IOException {
 
-        Collection<ClientConnector> dirtyVisibleConnectors = ui
-                .getConnectorTracker().getDirtyVisibleConnectors();
+        ConnectorTracker connectorTracker = ui.getConnectorTracker();
+        Collection<ClientConnector> dirtyVisibleConnectors = connectorTracker
+                .getDirtyVisibleConnectors();
 
-        JsonObject connectorTypes = Json.createObject();
+        JsonStreamWriter connectorTypes = JsonStreamWriter
+                .beginObject(writer);
         for (ClientConnector connector : dirtyVisibleConnectors) {
-            String connectorType = target.getTag(connector);
-            try {
-                connectorTypes.put(connector.getConnectorId(), connectorType);
-            } catch (JsonException e) {
-                throw new PaintException(
-                        "Failed to send connector type for connector "
-                                + connector.getConnectorId() + ": "
-                                + e.getMessage(),
-                        e);
+            if (connectorTracker.isClientSideInitialized(connector)) {
+                continue;
             }
+            String connectorType = target.getTag(connector);
+            connectorTypes.writeEntry(connector.getConnectorId(),
+                    connectorType);
         }
-        writer.write(JsonUtil.stringify(connectorTypes));
+        connectorTypes.end();
     }
 }
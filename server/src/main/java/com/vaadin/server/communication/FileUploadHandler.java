@@ -23,6 +23,9 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.vaadin.server.ClientConnector;
 import com.vaadin.server.NoInputStreamException;
@@ -32,6 +35,7 @@ import com.vaadin.server.ServletPortletHelper;
 import com.vaadin.server.StreamVariable;
 import com.vaadin.server.StreamVariable.StreamingEndEvent;
 import com.vaadin.server.StreamVariable.StreamingErrorEvent;
+import com.vaadin.server.StreamVariable.StreamingProgressEvent;
 import com.vaadin.server.UploadException;
 import com.vaadin.server.VaadinRequest;
 import com.vaadin.server.VaadinResponse;
@@ -50,151 +54,213 @@ public class FileUploadHandler implements RequestHandler {
     /**
      * Stream that extracts content from another stream until the boundary
      * string is encountered.
+     * <p>
+     * The content is read from the underlying stream in blocks and the
+     * boundary is searched for in the buffered data using the
+     * Boyer-Moore-Horspool algorithm, so that bulk reads are copied directly
+     * from the buffer without inspecting each byte separately.
      *
      * Public only for unit tests, should be considered private for all other
      * purposes.
      */
     public static class SimpleMultiPartInputStream extends InputStream {
 
+        private static final int BUFFER_SIZE = 32 * 1024;
+
         /**
-         * Counter of how many characters have been matched to boundary string
-         * from the stream
+         * Holds data read from the real input stream. Bytes between
+         * {@link #position} and {@link #limit} have not yet been consumed.
          */
-        int matchedCount = -1;
+        private final byte[] buffer;
+        private int position = 0;
+        private int limit = 0;
 
         /**
-         * Used as pointer when returning bytes after partly matched boundary
-         * string.
+         * End of the data after {@link #position} that is known to be content,
+         * i.e. not part of the boundary.
          */
-        int curBoundaryIndex = 0;
+        private int contentEnd = 0;
         /**
-         * The byte found after a "promising start for boundary"
+         * Whether the boundary starts at {@link #contentEnd}.
          */
-        private int bufferedByte = -1;
+        private boolean boundaryFound = false;
         private boolean atTheEnd = false;
 
-        private final char[] boundary;
+        private final byte[] boundary;
+
+        /**
+         * How far the search can skip ahead based on the last byte compared,
+         * indexed by the unsigned value of that byte.
+         */
+        private final int[] skipTable = new int[256];
 
         private final InputStream realInputStream;
 
         public SimpleMultiPartInputStream(InputStream realInputStream,
                 String boundaryString) {
-            boundary = (CRLF + DASHDASH + boundaryString).toCharArray();
+            boundary = (CRLF + DASHDASH + boundaryString)
+                    .getBytes(StandardCharsets.ISO_8859_1);
             this.realInputStream = realInputStream;
+            buffer = new byte[Math.max(BUFFER_SIZE, 2 * boundary.length)];
+
+            Arrays.fill(skipTable, boundary.length);
+            for (int i = 0; i < boundary.length - 1; i++) {
+                skipTable[boundary[i] & 0xFF] = boundary.length - 1 - i;
+            }
         }
 
         @Override
         public int read() throws IOException {
-            if (atTheEnd) {
-                // End boundary reached, nothing more to read
+            if (position == contentEnd && !findContent()) {
                 return -1;
-            } else if (bufferedByte >= 0) {
-                /* Purge partially matched boundary if there was such */
-                return getBuffered();
-            } else if (matchedCount != -1) {
-                /*
-                 * Special case where last "failed" matching ended with first
-                 * character from boundary string
-                 */
-                return matchForBoundary();
-            } else {
-                int fromActualStream = realInputStream.read();
-                if (fromActualStream == -1) {
-                    // unexpected end of stream
-                    throw new IOException(
-                            "The multipart stream ended unexpectedly");
-                }
-                if (boundary[0] == fromActualStream) {
-                    /*
-                     * If matches the first character in boundary string, start
-                     * checking if the boundary is fetched.
-                     */
-                    return matchForBoundary();
-                }
-                return fromActualStream;
             }
+            return buffer[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (position == contentEnd && !findContent()) {
+                return -1;
+            }
+            int count = Math.min(len, contentEnd - position);
+            System.arraycopy(buffer, position, b, off, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return contentEnd - position;
         }
 
         /**
-         * Reads the input to expect a boundary string. Expects that the first
-         * character has already been matched.
+         * Reads a line terminated by CRLF without looking for the boundary.
+         * Used for reading the multipart headers before the content starts.
          *
-         * @return -1 if the boundary was matched, else returns the first byte
-         *         from boundary
+         * @return the line without the line terminator
          * @throws IOException
+         *             if the stream ends before the end of the line
          */
-        private int matchForBoundary() throws IOException {
-            matchedCount = 0;
-            /*
-             * Going to "buffered mode". Read until full boundary match or a
-             * different character.
-             */
+        String readLine() throws IOException {
+            ByteArrayOutputStream bout = null;
             while (true) {
-                matchedCount++;
-                if (matchedCount == boundary.length) {
-                    /*
-                     * The whole boundary matched so we have reached the end of
-                     * file
-                     */
-                    atTheEnd = true;
-                    return -1;
+                for (int i = position; i < limit; i++) {
+                    if (buffer[i] == LF) {
+                        byte[] bytes;
+                        if (bout == null) {
+                            bytes = Arrays.copyOfRange(buffer, position, i);
+                        } else {
+                            bout.write(buffer, position, i - position);
+                            bytes = bout.toByteArray();
+                        }
+                        position = i + 1;
+                        contentEnd = position;
+                        return new String(bytes, 0, bytes.length - 1, UTF8);
+                    }
+                }
+                // Line continues past the buffered data
+                if (bout == null) {
+                    bout = new ByteArrayOutputStream();
                 }
-                int fromActualStream = realInputStream.read();
-                if (fromActualStream != boundary[matchedCount]) {
+                bout.write(buffer, position, limit - position);
+                position = limit;
+                contentEnd = limit;
+                fill(1);
+            }
+        }
+
+        /**
+         * Finds the next part of the buffer that contains content.
+         *
+         * @return <code>true</code> if there is more content, or
+         *         <code>false</code> if the boundary was reached
+         * @throws IOException
+         *             if the stream ends before the boundary
+         */
+        private boolean findContent() throws IOException {
+            if (atTheEnd) {
+                // End boundary reached, nothing more to read
+                return false;
+            }
+            if (!boundaryFound) {
+                fill(boundary.length);
+                int index = indexOfBoundary();
+                if (index >= 0) {
+                    contentEnd = index;
+                    boundaryFound = true;
+                } else {
                     /*
-                     * Did not find full boundary, cache the mismatching byte
-                     * and start returning the partially matched boundary.
+                     * The end of the buffer can still be the start of the
+                     * boundary, so it is checked again with more data.
                      */
-                    bufferedByte = fromActualStream;
-                    return getBuffered();
+                    contentEnd = limit - boundary.length + 1;
                 }
             }
+            if (boundaryFound && position == contentEnd) {
+                position += boundary.length;
+                contentEnd = position;
+                atTheEnd = true;
+                return false;
+            }
+            return true;
         }
 
         /**
-         * Returns the partly matched boundary string and the byte following
-         * that.
+         * Searches for the boundary in the unconsumed part of the buffer.
          *
-         * @return
-         * @throws IOException
+         * @return the index of the boundary in the buffer, or -1 if not found
          */
-        private int getBuffered() throws IOException {
-            int b;
-            if (matchedCount == 0) {
-                // The boundary has been returned, return the buffered byte.
-                b = bufferedByte;
-                bufferedByte = -1;
-                matchedCount = -1;
-            } else {
-                b = boundary[curBoundaryIndex++];
-                if (curBoundaryIndex == matchedCount) {
-                    // The full boundary has been returned, remaining is the
-                    // char that did not match the boundary.
-
-                    curBoundaryIndex = 0;
-                    if (bufferedByte != boundary[0]) {
-                        /*
-                         * next call for getBuffered will return the
-                         * bufferedByte that came after the partial boundary
-                         * match
-                         */
-                        matchedCount = 0;
-                    } else {
-                        /*
-                         * Special case where buffered byte again matches the
-                         * boundaryString. This could be the start of the real
-                         * end boundary.
-                         */
-                        matchedCount = 0;
-                        bufferedByte = -1;
+        private int indexOfBoundary() {
+            int last = boundary.length - 1;
+            int i = position;
+            while (i + last < limit) {
+                byte b = buffer[i + last];
+                if (b == boundary[last]) {
+                    int j = last - 1;
+                    while (j >= 0 && buffer[i + j] == boundary[j]) {
+                        j--;
+                    }
+                    if (j < 0) {
+                        return i;
                     }
                 }
+                i += skipTable[b & 0xFF];
+            }
+            return -1;
+        }
+
+        /**
+         * Moves the unconsumed data to the start of the buffer and reads from
+         * the real input stream until at least the given amount of data is
+         * available.
+         *
+         * @param minimum
+         *            the minimum number of unconsumed bytes needed
+         * @throws IOException
+         *             if the real input stream ends before enough data could be
+         *             read
+         */
+        private void fill(int minimum) throws IOException {
+            if (position > 0) {
+                System.arraycopy(buffer, position, buffer, 0,
+                        limit - position);
+                limit -= position;
+                contentEnd -= position;
+                position = 0;
             }
-            if (b == -1) {
-                throw new IOException(
-                        "The multipart stream ended unexpectedly");
+            while (limit < minimum) {
+                int read = realInputStream.read(buffer, limit,
+                        buffer.length - limit);
+                if (read == -1) {
+                    // unexpected end of stream
+                    throw new IOException(
+                            "The multipart stream ended unexpectedly");
+                }
+                limit += read;
             }
-            return b;
         }
     }
 
@@ -227,10 +293,12 @@ public class FileUploadHandler implements RequestHandler {
 
     private static final String DASHDASH = "--";
 
-    /*
-     * Same as in apache commons file upload library that was previously used.
+    /**
+     * Default size of the buffer used for streaming uploaded data to the
+     * receiver. Same as in apache commons file upload library that was
+     * previously used.
      */
-    private static final int MAX_UPLOAD_BUFFER_SIZE = 4 * 1024;
+    public static final int DEFAULT_UPLOAD_BUFFER_SIZE = 4 * 1024;
 
     /* Minimum interval which will be used for streaming progress events. */
     public static final int DEFAULT_STREAMING_PROGRESS_EVENT_INTERVAL_MS = 500;
@@ -296,21 +364,6 @@ public class FileUploadHandler implements RequestHandler {
         return true;
     }
 
-    private static String readLine(InputStream stream) throws IOException {
-        ByteArrayOutputStream bout = new ByteArrayOutputStream();
-        int readByte = stream.read();
-        while (readByte != LF) {
-            if (readByte == -1) {
-                throw new IOException(
-                        "The multipart stream ended unexpectedly");
-            }
-            bout.write(readByte);
-            readByte = stream.read();
-        }
-        byte[] bytes = bout.toByteArray();
-        return new String(bytes, 0, bytes.length - 1, UTF8);
-    }
-
     /**
      * Method used to stream content from a multipart request (either from
      * servlet or portlet request) to given StreamVariable.
@@ -345,7 +398,15 @@ public class FileUploadHandler implements RequestHandler {
         // multipart parsing, supports only one file for request, but that is
         // fine for our current terminal
 
-        final InputStream inputStream = request.getInputStream();
+        /*
+         * Reads the multipart headers and then the file content from the
+         * underlying stream. Returns -1 when the boundary string is met.
+         *
+         * Note, if this is someday needed elsewhere, don't shoot yourself to
+         * foot and split to a top level helper class.
+         */
+        SimpleMultiPartInputStream simpleMultiPartReader = new SimpleMultiPartInputStream(
+                request.getInputStream(), boundary);
 
         long contentLength = getContentLength(request);
 
@@ -360,7 +421,7 @@ public class FileUploadHandler implements RequestHandler {
          * filename and content type from multipart headers.
          */
         while (!atStart) {
-            String readLine = readLine(inputStream);
+            String readLine = simpleMultiPartReader.readLine();
             contentLength -= (readLine.getBytes(UTF8).length + CRLF.length());
             if (readLine.startsWith("Content-Disposition:")
                     && readLine.indexOf("filename=") > 0) {
@@ -380,22 +441,6 @@ public class FileUploadHandler implements RequestHandler {
         contentLength -= (boundary.length() + CRLF.length()
                 + 2 * DASHDASH.length() + CRLF.length());
 
-        /*
-         * Reads bytes from the underlying stream. Compares the read bytes to
-         * the boundary string and returns -1 if met.
-         *
-         * The matching happens so that if the read byte equals to the first
-         * char of boundary string, the stream goes to "buffering mode". In
-         * buffering mode bytes are read until the character does not match the
-         * corresponding from boundary string or the full boundary string is
-         * found.
-         *
-         * Note, if this is someday needed elsewhere, don't shoot yourself to
-         * foot and split to a top level helper class.
-         */
-        InputStream simpleMultiPartReader = new SimpleMultiPartInputStream(
-                inputStream, boundary);
-
         /*
          * Should report only the filename even if the browser sends the path
          */
@@ -534,6 +579,13 @@ public class FileUploadHandler implements RequestHandler {
 
         OutputStream out = null;
         long totalBytes = 0;
+        /*
+         * Progress events are delivered through session access tasks so that
+         * the upload does not wait for the session lock. Only one task is
+         * queued at a time and it delivers the latest event.
+         */
+        final AtomicReference<StreamingProgressEvent> pendingProgress = new AtomicReference<>();
+        StreamingProgressEvent finalProgressEvent = null;
         StreamingStartEventImpl startedEvent = new StreamingStartEventImpl(
                 filename, type, contentLength);
         try {
@@ -557,7 +609,7 @@ public class FileUploadHandler implements RequestHandler {
                 throw new NoInputStreamException();
             }
 
-            final byte buffer[] = new byte[MAX_UPLOAD_BUFFER_SIZE];
+            final byte buffer[] = new byte[getUploadBufferSize()];
             long lastStreamingEvent = 0;
             int bytesReadToBuffer = 0;
             do {
@@ -573,13 +625,20 @@ public class FileUploadHandler implements RequestHandler {
                     if (lastStreamingEvent + getProgressEventInterval() <= now
                             || bytesReadToBuffer <= 0) {
                         lastStreamingEvent = now;
-                        session.lock();
-                        try {
-                            StreamingProgressEventImpl progressEvent = new StreamingProgressEventImpl(
-                                    filename, type, contentLength, totalBytes);
-                            streamVariable.onProgress(progressEvent);
-                        } finally {
-                            session.unlock();
+                        StreamingProgressEventImpl progressEvent = new StreamingProgressEventImpl(
+                                filename, type, contentLength, totalBytes);
+                        if (bytesReadToBuffer <= 0) {
+                            // Delivered together with the end event
+                            finalProgressEvent = progressEvent;
+                        } else if (pendingProgress.getAndSet(
+                                progressEvent) == null) {
+                            session.access(() -> {
+                                StreamingProgressEvent event = pendingProgress
+                                        .getAndSet(null);
+                                if (event != null) {
+                                    streamVariable.onProgress(event);
+                                }
+                            });
                         }
                     }
                 }
@@ -594,6 +653,11 @@ public class FileUploadHandler implements RequestHandler {
                     totalBytes);
             session.lock();
             try {
+                // The final event replaces any event not yet delivered
+                pendingProgress.set(null);
+                if (finalProgressEvent != null) {
+                    streamVariable.onProgress(finalProgressEvent);
+                }
                 streamVariable.streamingFinished(event);
             } finally {
                 session.unlock();
@@ -606,6 +670,7 @@ public class FileUploadHandler implements RequestHandler {
                     type, contentLength, totalBytes, e);
             session.lock();
             try {
+                pendingProgress.set(null);
                 streamVariable.streamingFailed(event);
             } finally {
                 session.unlock();
@@ -616,6 +681,7 @@ public class FileUploadHandler implements RequestHandler {
             tryToCloseStream(out);
             session.lock();
             try {
+                pendingProgress.set(null);
                 StreamingErrorEvent event = new StreamingErrorEventImpl(
                         filename, type, contentLength, totalBytes, e);
                 streamVariable.streamingFailed(event);
@@ -640,6 +706,22 @@ public class FileUploadHandler implements RequestHandler {
         return DEFAULT_STREAMING_PROGRESS_EVENT_INTERVAL_MS;
     }
 
+    /**
+     * Gets the size of the buffer used for streaming uploaded data to the
+     * output stream of the {@link StreamVariable}. A larger buffer means fewer
+     * writes and fewer checks for interruption and progress for large
+     * uploads, at the cost of memory for each ongoing upload. To adjust this
+     * value override the method, and register your own handler in
+     * VaadinService.createRequestHandlers(). The default is
+     * {@value #DEFAULT_UPLOAD_BUFFER_SIZE} bytes.
+     *
+     * @since 8.0
+     * @return the buffer size in bytes
+     */
+    protected int getUploadBufferSize() {
+        return DEFAULT_UPLOAD_BUFFER_SIZE;
+    }
+
     static void tryToCloseStream(OutputStream out) {
         try {
             // try to close output stream (e.g. file handle)
@@ -20,9 +20,9 @@ import java.io.IOException;
 
 import javax.servlet.http.HttpServletResponse;
 
+import com.vaadin.server.RequestHandler;
 import com.vaadin.server.ServletPortletHelper;
 import com.vaadin.server.SessionExpiredHandler;
-import com.vaadin.server.SynchronizedRequestHandler;
 import com.vaadin.server.VaadinRequest;
 import com.vaadin.server.VaadinResponse;
 import com.vaadin.server.VaadinSession;
@@ -36,17 +36,16 @@ import com.vaadin.ui.UI;
  * no UIDL requests for a prolonged period of time. UIs that do not receive
  * either heartbeat or UIDL requests are eventually removed from the session and
  * garbage collected.
+ * <p>
+ * Heartbeat requests are handled without locking the session so that they are
+ * not blocked by other requests for the same session, e.g. a UIDL request that
+ * takes a long time to handle.
  *
  * @author Vaadin Ltd
  * @since 7.1
  */
-public class HeartbeatHandler extends SynchronizedRequestHandler
-        implements SessionExpiredHandler {
-
-    @Override
-    protected boolean canHandleRequest(VaadinRequest request) {
-        return ServletPortletHelper.isHeartbeatRequest(request);
-    }
+public class HeartbeatHandler
+        implements RequestHandler, SessionExpiredHandler {
 
     /**
      * Handles a heartbeat request for the given session. Reads the GET
@@ -54,11 +53,17 @@ public class HeartbeatHandler extends SynchronizedRequestHandler
      * If the UI is found in the session, sets it
      * {@link UI#getLastHeartbeatTimestamp() heartbeat timestamp} to the current
      * time. Otherwise, writes a HTTP Not Found error to the response.
+     * <p>
+     * The session is not locked while handling the request.
      */
     @Override
-    public boolean synchronizedHandleRequest(VaadinSession session,
-            VaadinRequest request, VaadinResponse response) throws IOException {
-        UI ui = session.getService().findUI(request);
+    public boolean handleRequest(VaadinSession session, VaadinRequest request,
+            VaadinResponse response) throws IOException {
+        if (!ServletPortletHelper.isHeartbeatRequest(request)) {
+            return false;
+        }
+
+        UI ui = findUI(session, request);
         if (ui != null) {
             ui.setLastHeartbeatTimestamp(System.currentTimeMillis());
             // Ensure that the browser does not cache heartbeat responses.
@@ -75,6 +80,26 @@ public class HeartbeatHandler extends SynchronizedRequestHandler
         return true;
     }
 
+    /**
+     * Finds the UI that sent the given heartbeat request without locking the
+     * session.
+     *
+     * @param session
+     *            the session of the request
+     * @param request
+     *            the heartbeat request
+     * @return the UI that sent the request, or <code>null</code> if there is
+     *         no such UI in the session
+     * @since 8.0
+     */
+    protected UI findUI(VaadinSession session, VaadinRequest request) {
+        String uiIdString = request.getParameter(UIConstants.UI_ID_PARAMETER);
+        if (uiIdString == null) {
+            return null;
+        }
+        return session.getUIByIdWithoutLock(Integer.parseInt(uiIdString));
+    }
+
     /*
      * (non-Javadoc)
      *
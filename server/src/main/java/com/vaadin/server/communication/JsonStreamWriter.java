@@ -0,0 +1,168 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package com.vaadin.server.communication;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.Writer;
+import java.util.Collection;
+
+import elemental.json.JsonValue;
+import elemental.json.impl.JsonUtil;
+
+/**
+ * Writes a single JSON object or array directly to a {@link Writer} one entry
+ * at a time. Used by the UIDL writers so that the values produced for each
+ * connector can be written out and discarded right away instead of first
+ * collecting the whole response section into one JSON tree.
+ *
+ * @author Vaadin Ltd
+ * @since 8.0
+ */
+class JsonStreamWriter implements Serializable {
+
+    private final transient Writer writer;
+    private final char end;
+    private boolean empty = true;
+
+    private JsonStreamWriter(Writer writer, char start, char end)
+            throws IOException {
+        this.writer = writer;
+        this.end = end;
+        writer.write(start);
+    }
+
+    /**
+     * Starts writing a JSON object to the given writer.
+     *
+     * @param writer
+     *            the writer to write to
+     * @return a stream writer for adding entries to the object
+     * @throws IOException
+     *             if the writing fails
+     */
+    public static JsonStreamWriter beginObject(Writer writer)
+            throws IOException {
+        return new JsonStreamWriter(writer, '{', '}');
+    }
+
+    /**
+     * Starts writing a JSON array to the given writer.
+     *
+     * @param writer
+     *            the writer to write to
+     * @return a stream writer for adding values to the array
+     * @throws IOException
+     *             if the writing fails
+     */
+    public static JsonStreamWriter beginArray(Writer writer)
+            throws IOException {
+        return new JsonStreamWriter(writer, '[', ']');
+    }
+
+    /**
+     * Writes a key-value pair to the object being written.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value to write
+     * @throws IOException
+     *             if the writing fails
+     */
+    public void writeEntry(String key, JsonValue value) throws IOException {
+        writeKey(key);
+        writer.write(JsonUtil.stringify(value));
+    }
+
+    /**
+     * Writes a key-value pair with a string value to the object being written.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the string value to write
+     * @throws IOException
+     *             if the writing fails
+     */
+    public void writeEntry(String key, String value) throws IOException {
+        writeKey(key);
+        writer.write(JsonUtil.quote(value));
+    }
+
+    /**
+     * Writes a key and an array of strings as its value to the object being
+     * written.
+     *
+     * @param key
+     *            the key
+     * @param values
+     *            the strings to write as an array
+     * @throws IOException
+     *             if the writing fails
+     */
+    public void writeEntry(String key, Collection<String> values)
+            throws IOException {
+        writeKey(key);
+        writer.write('[');
+        boolean first = true;
+        for (String value : values) {
+            if (!first) {
+                writer.write(',');
+            }
+            first = false;
+            writer.write(JsonUtil.quote(value));
+        }
+        writer.write(']');
+    }
+
+    /**
+     * Writes a value to the array being written.
+     *
+     * @param value
+     *            the value to write
+     * @throws IOException
+     *             if the writing fails
+     */
+    public void writeValue(JsonValue value) throws IOException {
+        separate();
+        writer.write(JsonUtil.stringify(value));
+    }
+
+    /**
+     * Ends the object or array being written.
+     *
+     * @throws IOException
+     *             if the writing fails
+     */
+    public void end() throws IOException {
+        writer.write(end);
+    }
+
+    private void writeKey(String key) throws IOException {
+        separate();
+        writer.write(JsonUtil.quote(key));
+        writer.write(':');
+    }
+
+    private void separate() throws IOException {
+        if (!empty) {
+            writer.write(',');
+        }
+        empty = false;
+    }
+}
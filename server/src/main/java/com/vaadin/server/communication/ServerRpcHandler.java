@@ -33,6 +33,8 @@ import com.vaadin.server.Constants;
 import com.vaadin.server.JsonCodec;
 import com.vaadin.server.LegacyCommunicationManager;
 import com.vaadin.server.LegacyCommunicationManager.InvalidUIDLSecurityKeyException;
+import com.vaadin.server.RequestTimer;
+import com.vaadin.server.RequestTimer.Phase;
 import com.vaadin.server.ServerRpcManager;
 import com.vaadin.server.ServerRpcManager.RpcInvocationException;
 import com.vaadin.server.ServerRpcMethodInvocation;
@@ -239,6 +241,7 @@ public class ServerRpcHandler implements Serializable {
         }
 
         checkWidgetsetVersion(rpcRequest.getWidgetsetVersion());
+        RequestTimer.mark(Phase.RPC_DECODE);
 
         int expectedId = ui.getLastProcessedClientToServerId() + 1;
         if (rpcRequest.getClientToServerId() != -1
@@ -282,6 +285,7 @@ public class ServerRpcHandler implements Serializable {
             ui.getSession().getCommunicationManager().repaintAll(ui);
         }
 
+        RequestTimer.mark(Phase.RPC_INVOCATION);
     }
 
     /**
@@ -340,6 +344,7 @@ public class ServerRpcHandler implements Serializable {
             List<MethodInvocation> invocations = parseInvocations(
                     ui.getConnectorTracker(), invocationsData,
                     lastSyncIdSeenByClient);
+            RequestTimer.mark(Phase.RPC_DECODE);
             for (MethodInvocation invocation : invocations) {
                 final ClientConnector connector = connectorTracker
                         .getConnector(invocation.getConnectorId());
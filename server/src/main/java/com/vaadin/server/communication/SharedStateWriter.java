@@ -28,10 +28,8 @@ import com.vaadin.server.PaintException;
 import com.vaadin.shared.communication.SharedState;
 import com.vaadin.ui.UI;
 
-import elemental.json.Json;
 import elemental.json.JsonException;
 import elemental.json.JsonObject;
-import elemental.json.impl.JsonUtil;
 
 /**
  * Serializes {@link SharedState shared state} changes to JSON.
@@ -59,7 +57,7 @@ public class SharedStateWriter implements Serializable {
                 .getConnectorTracker().getDirtyVisibleConnectors();
 
         Set<String> writtenConnectors = new HashSet<>();
-        JsonObject sharedStates = Json.createObject();
+        JsonStreamWriter sharedStates = JsonStreamWriter.beginObject(writer);
         for (ClientConnector connector : dirtyVisibleConnectors) {
             // encode and send shared state
             String connectorId = connector.getConnectorId();
@@ -67,7 +65,7 @@ public class SharedStateWriter implements Serializable {
                 JsonObject stateJson = connector.encodeState();
 
                 if (stateJson != null && stateJson.keys().length != 0) {
-                    sharedStates.put(connectorId, stateJson);
+                    sharedStates.writeEntry(connectorId, stateJson);
                     writtenConnectors.add(connectorId);
                 }
             } catch (JsonException e) {
@@ -78,7 +76,7 @@ public class SharedStateWriter implements Serializable {
                         e);
             }
         }
-        writer.write(JsonUtil.stringify(sharedStates));
+        sharedStates.end();
 
         return writtenConnectors;
     }
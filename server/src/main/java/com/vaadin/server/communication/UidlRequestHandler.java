@@ -23,6 +23,8 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import com.vaadin.server.LegacyCommunicationManager.InvalidUIDLSecurityKeyException;
+import com.vaadin.server.RequestTimer;
+import com.vaadin.server.RequestTimer.Phase;
 import com.vaadin.server.ServletPortletHelper;
 import com.vaadin.server.SessionExpiredHandler;
 import com.vaadin.server.SynchronizedRequestHandler;
@@ -72,9 +74,47 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
         return ServletPortletHelper.isUIDLRequest(request);
     }
 
+    @Override
+    public boolean handleRequest(VaadinSession session, VaadinRequest request,
+            VaadinResponse response) throws IOException {
+        if (!canHandleRequest(request)) {
+            return false;
+        }
+
+        RequestTimer timer = RequestTimer.start(session.getService());
+        if (timer == null) {
+            return super.handleRequest(session, request, response);
+        }
+        try {
+            return super.handleRequest(session, request, response);
+        } finally {
+            // Normally already finished before unlocking the session
+            timer.finish();
+        }
+    }
+
     @Override
     public boolean synchronizedHandleRequest(VaadinSession session,
             VaadinRequest request, VaadinResponse response) throws IOException {
+        try {
+            return doHandleRequest(session, request, response);
+        } finally {
+            /*
+             * Finish before the session is unlocked, so that access tasks and
+             * pushes to other UIs run when unlocking are not attributed to
+             * this request
+             */
+            RequestTimer timer = RequestTimer.getCurrent();
+            if (timer != null) {
+                timer.finish();
+            }
+        }
+    }
+
+    private boolean doHandleRequest(VaadinSession session,
+            VaadinRequest request, VaadinResponse response) throws IOException {
+        RequestTimer.mark(Phase.LOCK_WAIT);
+
         UI uI = session.getService().findUI(request);
         if (uI == null) {
             // This should not happen but it will if the UI has been closed. We
@@ -84,6 +124,8 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
             return true;
         }
 
+        RequestTimer.setUI(uI);
+
         StringWriter stringWriter = new StringWriter();
 
         try {
@@ -106,8 +148,10 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
             stringWriter.close();
         }
 
-        return UIInitHandler.commitJsonResponse(request, response,
+        boolean handled = UIInitHandler.commitJsonResponse(request, response,
                 stringWriter.toString());
+        RequestTimer.mark(Phase.RESPONSE_WRITE);
+        return handled;
     }
 
     private void writeRefresh(VaadinRequest request, VaadinResponse response)
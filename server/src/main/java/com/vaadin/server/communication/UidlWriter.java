@@ -33,6 +33,8 @@ import com.vaadin.server.ClientConnector;
 import com.vaadin.server.JsonPaintTarget;
 import com.vaadin.server.LegacyCommunicationManager;
 import com.vaadin.server.LegacyCommunicationManager.ClientCache;
+import com.vaadin.server.RequestTimer;
+import com.vaadin.server.RequestTimer.Phase;
 import com.vaadin.server.SystemMessages;
 import com.vaadin.server.VaadinService;
 import com.vaadin.server.VaadinSession;
@@ -42,9 +44,7 @@ import com.vaadin.ui.Dependency;
 import com.vaadin.ui.UI;
 
 import elemental.json.Json;
-import elemental.json.JsonArray;
 import elemental.json.JsonObject;
-import elemental.json.impl.JsonUtil;
 
 /**
  * Serializes pending server-side changes to UI state to JSON. This includes
@@ -116,6 +116,7 @@ public class UidlWriter implements Serializable {
 
         getLogger().log(Level.FINE, "Found " + processedConnectors.size()
                 + " dirty connectors to paint");
+        RequestTimer.mark(Phase.BEFORE_CLIENT_RESPONSE);
 
         uiConnectorTracker.setWritingResponse(true);
         try {
@@ -155,25 +156,24 @@ public class UidlWriter implements Serializable {
             // processing.
 
             writer.write("\"state\":");
+            RequestTimer.mark(Phase.LEGACY_PAINT);
             Set<String> stateUpdateConnectors = new SharedStateWriter()
                     .write(ui, writer);
+            RequestTimer.mark(Phase.STATE_ENCODING);
             writer.write(", "); // close states
 
-            // TODO This should be optimized. The type only needs to be
-            // sent once for each connector id + on refresh. Use the same cache
-            // as
-            // widget mapping
+            // The type is only sent for connectors that have not yet been
+            // initialized on the client side, i.e. once for each connector id
+            // + on refresh
 
             writer.write("\"types\":");
             new ConnectorTypeWriter().write(ui, writer, paintTarget);
             writer.write(", "); // close states
 
-            // Send update hierarchy information to the client.
-
-            // This could be optimized aswell to send only info if hierarchy has
-            // actually changed. Much like with the shared state. Note though
-            // that an empty hierarchy is information aswell (e.g. change from 1
-            // child to 0 children)
+            // Send update hierarchy information to the client, only for
+            // connectors whose children have changed since last sent. Note
+            // though that an empty hierarchy is information aswell (e.g. change
+            // from 1 child to 0 children)
 
             writer.write("\"hierarchy\":");
             new ConnectorHierarchyWriter().write(ui, writer,
@@ -287,8 +287,8 @@ public class UidlWriter implements Serializable {
 
             // Include dependencies in output if there are any
             if (!dependencies.isEmpty()) {
-                writer.write(", \"dependencies\": "
-                        + JsonUtil.stringify(toJsonArray(dependencies)));
+                writer.write(", \"dependencies\": ");
+                writeDependencies(dependencies, writer);
             }
 
             session.getDragAndDropService().printJSONResponse(writer);
@@ -301,23 +301,23 @@ public class UidlWriter implements Serializable {
                     .isEmpty()) : "Connectors have been marked as dirty during the end of the paint phase. This is most certainly not intended.";
 
             writePerformanceData(ui, writer);
+            RequestTimer.mark(Phase.RESPONSE_WRITE);
         } finally {
             uiConnectorTracker.setWritingResponse(false);
             uiConnectorTracker.cleanConnectorMap();
         }
     }
 
-    private JsonArray toJsonArray(List<Dependency> list) {
-        JsonArray result = Json.createArray();
-        for (int i = 0; i < list.size(); i++) {
+    private void writeDependencies(List<Dependency> dependencies,
+            Writer writer) throws IOException {
+        JsonStreamWriter result = JsonStreamWriter.beginArray(writer);
+        for (Dependency dependency : dependencies) {
             JsonObject dep = Json.createObject();
-            Dependency dependency = list.get(i);
             dep.put("type", dependency.getType().name());
             dep.put("url", dependency.getUrl());
-            result.set(i, dep);
+            result.writeValue(dep);
         }
-
-        return result;
+        result.end();
     }
 
     /**
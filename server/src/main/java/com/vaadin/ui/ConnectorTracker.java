@@ -19,10 +19,12 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.NavigableMap;
 import java.util.Set;
@@ -42,8 +44,10 @@ import com.vaadin.server.VaadinService;
 import com.vaadin.server.communication.ConnectorHierarchyWriter;
 
 import elemental.json.Json;
-import elemental.json.JsonException;
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
+import elemental.json.JsonType;
+import elemental.json.JsonValue;
 
 /**
  * A class which takes care of book keeping of {@link ClientConnector}s for a
@@ -83,6 +87,12 @@ public class ConnectorTracker implements Serializable {
     private final UI uI;
     private transient Map<ClientConnector, JsonObject> diffStates = new HashMap<>();
 
+    /**
+     * The child connector ids last sent to the client for each connector with
+     * children. Connectors without an entry have no children on the client.
+     */
+    private final Map<ClientConnector, List<String>> sentHierarchies = new HashMap<>();
+
     /** Maps connectorIds to a map of named StreamVariables */
     private Map<String, Map<String, StreamVariable>> pidToNameToStreamVariable;
 
@@ -246,6 +256,7 @@ public class ConnectorTracker implements Serializable {
     public void markAllClientSidesUninitialized() {
         uninitializedConnectors.addAll(connectorIdToConnector.values());
         diffStates.clear();
+        sentHierarchies.clear();
     }
 
     /**
@@ -273,6 +284,17 @@ public class ConnectorTracker implements Serializable {
         return null;
     }
 
+    /**
+     * Gets the number of connectors registered to this tracker, including
+     * connectors that have been unregistered but not yet cleaned up.
+     *
+     * @since 8.0
+     * @return the number of registered connectors
+     */
+    public int getConnectorCount() {
+        return connectorIdToConnector.size();
+    }
+
     /**
      * Cleans the connector map from all connectors that are no longer attached
      * to the application. This should only be called by the framework.
@@ -315,12 +337,14 @@ public class ConnectorTracker implements Serializable {
                 }
                 uninitializedConnectors.remove(connector);
                 diffStates.remove(connector);
+                sentHierarchies.remove(connector);
                 iterator.remove();
             } else if (!uninitializedConnectors.contains(connector)
                     && !LegacyCommunicationManager
                             .isConnectorVisibleToClient(connector)) {
                 uninitializedConnectors.add(connector);
                 diffStates.remove(connector);
+                sentHierarchies.remove(connector);
 
                 assert isRemovalSentToClient(connector) : "Connector "
                         + connector + " (id = " + connector.getConnectorId()
@@ -431,6 +455,7 @@ public class ConnectorTracker implements Serializable {
             }
             uninitializedConnectors.remove(connector);
             diffStates.remove(connector);
+            sentHierarchies.remove(connector);
         }
         unregisteredConnectors.clear();
     }
@@ -643,6 +668,48 @@ public class ConnectorTracker implements Serializable {
         diffStates.put(connector, diffState);
     }
 
+    /**
+     * Gets the ids of the child connectors that were last sent to the client
+     * for the given connector.
+     *
+     * @see #setSentHierarchy(ClientConnector, List)
+     *
+     * @since 8.0
+     * @param connector
+     *            the connector to get the sent children for
+     * @return an unmodifiable list of child connector ids, empty if no children
+     *         have been sent for the connector
+     */
+    public List<String> getSentHierarchy(ClientConnector connector) {
+        assert getConnector(connector.getConnectorId()) == connector;
+        List<String> childIds = sentHierarchies.get(connector);
+        if (childIds == null) {
+            return Collections.emptyList();
+        }
+        return Collections.unmodifiableList(childIds);
+    }
+
+    /**
+     * Records the ids of the child connectors that the client knows about for
+     * the given connector. This is used for only sending hierarchy changes to
+     * the client when the children of a connector have actually changed.
+     *
+     * @since 8.0
+     * @param connector
+     *            the connector to set the sent children for
+     * @param childIds
+     *            the ids of the child connectors known by the client
+     */
+    public void setSentHierarchy(ClientConnector connector,
+            List<String> childIds) {
+        assert getConnector(connector.getConnectorId()) == connector;
+        if (childIds.isEmpty()) {
+            sentHierarchies.remove(connector);
+        } else {
+            sentHierarchies.put(connector, new ArrayList<>(childIds));
+        }
+    }
+
     public boolean isDirty(ClientConnector connector) {
         return dirtyConnectors.contains(connector);
     }
@@ -704,14 +771,14 @@ public class ConnectorTracker implements Serializable {
     private void writeObject(java.io.ObjectOutputStream out)
             throws IOException {
         out.defaultWriteObject();
-        // Convert JsonObjects in diff state to String representation as
+        // Write the JsonObjects in diff state in a compact binary form as
         // JsonObject is not serializable
-        HashMap<ClientConnector, String> stringDiffStates = new HashMap<>(
-                diffStates.size() * 2);
-        for (ClientConnector key : diffStates.keySet()) {
-            stringDiffStates.put(key, diffStates.get(key).toString());
+        out.writeInt(diffStates.size());
+        for (Map.Entry<ClientConnector, JsonObject> entry : diffStates
+                .entrySet()) {
+            out.writeObject(entry.getKey());
+            writeJsonValue(out, entry.getValue());
         }
-        out.writeObject(stringDiffStates);
     }
 
     /* Special serialization to JsonObjects which are not serializable */
@@ -719,21 +786,94 @@ public class ConnectorTracker implements Serializable {
             throws IOException, ClassNotFoundException {
         in.defaultReadObject();
 
-        // Read String versions of JsonObjects and parse into JsonObjects as
-        // JsonObject is not serializable
-        diffStates = new HashMap<>();
-        @SuppressWarnings("unchecked")
-        HashMap<ClientConnector, String> stringDiffStates = (HashMap<ClientConnector, String>) in
-                .readObject();
-        diffStates = new HashMap<>(stringDiffStates.size() * 2);
-        for (ClientConnector key : stringDiffStates.keySet()) {
-            try {
-                diffStates.put(key, Json.parse(stringDiffStates.get(key)));
-            } catch (JsonException e) {
-                throw new IOException(e);
+        // Read the binary form of the diff state JsonObjects written by
+        // writeObject as JsonObject is not serializable
+        int size = in.readInt();
+        diffStates = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            ClientConnector key = (ClientConnector) in.readObject();
+            diffStates.put(key, (JsonObject) readJsonValue(in));
+        }
+    }
+
+    /*
+     * Writes a JSON value as a type tag followed by its contents. Strings,
+     * including object keys, are written using writeObject so that the
+     * property names shared by all diff states of the same state type are
+     * only written once to the stream and are shared again after reading.
+     */
+    private static void writeJsonValue(java.io.ObjectOutputStream out,
+            JsonValue value) throws IOException {
+        JsonType type = value.getType();
+        out.writeByte(type.ordinal());
+        switch (type) {
+        case NULL:
+            break;
+        case BOOLEAN:
+            out.writeBoolean(value.asBoolean());
+            break;
+        case NUMBER:
+            out.writeDouble(value.asNumber());
+            break;
+        case STRING:
+            out.writeObject(value.asString());
+            break;
+        case ARRAY:
+            JsonArray array = (JsonArray) value;
+            out.writeInt(array.length());
+            for (int i = 0; i < array.length(); i++) {
+                writeJsonValue(out, array.get(i));
+            }
+            break;
+        case OBJECT:
+            JsonObject object = (JsonObject) value;
+            String[] keys = object.keys();
+            out.writeInt(keys.length);
+            for (String key : keys) {
+                out.writeObject(key);
+                writeJsonValue(out, object.get(key));
             }
+            break;
+        default:
+            throw new IOException("Unsupported JsonType: " + type);
         }
+    }
 
+    private static JsonValue readJsonValue(java.io.ObjectInputStream in)
+            throws IOException, ClassNotFoundException {
+        int typeIndex = in.readByte();
+        JsonType[] types = JsonType.values();
+        if (typeIndex < 0 || typeIndex >= types.length) {
+            throw new IOException("Invalid JsonType index: " + typeIndex);
+        }
+        switch (types[typeIndex]) {
+        case NULL:
+            return Json.createNull();
+        case BOOLEAN:
+            return Json.create(in.readBoolean());
+        case NUMBER:
+            return Json.create(in.readDouble());
+        case STRING:
+            return Json.create((String) in.readObject());
+        case ARRAY:
+            int length = in.readInt();
+            JsonArray array = Json.createArray();
+            for (int i = 0; i < length; i++) {
+                array.set(i, readJsonValue(in));
+            }
+            return array;
+        case OBJECT:
+            int keyCount = in.readInt();
+            JsonObject object = Json.createObject();
+            for (int i = 0; i < keyCount; i++) {
+                String key = (String) in.readObject();
+                object.put(key, readJsonValue(in));
+            }
+            return object;
+        default:
+            throw new IOException(
+                    "Unsupported JsonType: " + types[typeIndex]);
+        }
     }
 
     /**
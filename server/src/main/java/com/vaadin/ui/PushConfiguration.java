@@ -34,6 +34,14 @@ import com.vaadin.shared.ui.ui.UIState.PushConfigurationState;
  */
 public interface PushConfiguration extends Serializable {
 
+    /**
+     * The default minimum interval between pushes in
+     * {@link PushMode#THROTTLED throttled} mode, in milliseconds.
+     *
+     * @since 8.0
+     */
+    public static final int DEFAULT_MINIMUM_PUSH_INTERVAL = 100;
+
     /**
      * Returns the mode of bidirectional ("push") communication that is used.
      *
@@ -60,6 +68,27 @@ public interface PushConfiguration extends Serializable {
      */
     public void setPushMode(PushMode pushMode);
 
+    /**
+     * Returns the minimum time between two pushes when the push mode is
+     * {@link PushMode#THROTTLED}.
+     *
+     * @since 8.0
+     * @return the minimum push interval in milliseconds
+     */
+    public int getMinimumPushInterval();
+
+    /**
+     * Sets the minimum time between two pushes when the push mode is
+     * {@link PushMode#THROTTLED}. Changes made before the interval has passed
+     * since the previous push are pushed together once the interval has
+     * passed. The default is {@value #DEFAULT_MINIMUM_PUSH_INTERVAL} ms.
+     *
+     * @since 8.0
+     * @param minimumPushInterval
+     *            the minimum push interval in milliseconds, greater than 0
+     */
+    public void setMinimumPushInterval(int minimumPushInterval);
+
     /**
      * Returns the primary transport type for push.
      * <p>
@@ -166,6 +195,7 @@ public interface PushConfiguration extends Serializable {
 
 class PushConfigurationImpl implements PushConfiguration {
     private final UI ui;
+    private int minimumPushInterval = DEFAULT_MINIMUM_PUSH_INTERVAL;
 
     public PushConfigurationImpl(UI ui) {
         this.ui = ui;
@@ -222,6 +252,20 @@ class PushConfigurationImpl implements PushConfiguration {
         }
     }
 
+    @Override
+    public int getMinimumPushInterval() {
+        return minimumPushInterval;
+    }
+
+    @Override
+    public void setMinimumPushInterval(int minimumPushInterval) {
+        if (minimumPushInterval <= 0) {
+            throw new IllegalArgumentException(
+                    "Minimum push interval must be greater than 0");
+        }
+        this.minimumPushInterval = minimumPushInterval;
+    }
+
     @Override
     public void setPushUrl(String pushUrl) {
         getState().pushUrl = pushUrl;
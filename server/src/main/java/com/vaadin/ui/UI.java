@@ -279,7 +279,11 @@ public abstract class UI extends AbstractSingleComponentContainer
      * current time whenever the application receives a heartbeat or UIDL
      * request from the client for this UI.
      */
-    private long lastHeartbeatTimestamp = System.currentTimeMillis();
+    /*
+     * Volatile since heartbeat requests update this without locking the
+     * session
+     */
+    private volatile long lastHeartbeatTimestamp = System.currentTimeMillis();
 
     private boolean closing = false;
 
@@ -1212,7 +1216,7 @@ public abstract class UI extends AbstractSingleComponentContainer
     /**
      * Sets the last heartbeat request timestamp for this UI. Called by the
      * framework whenever the application receives a valid heartbeat request for
-     * this UI.
+     * this UI. Heartbeat requests call this without holding the session lock.
      * <p>
      * This method is not intended to be overridden. If it is overridden, care
      * should be taken since this method might be called in situations where
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.util;
+
+import java.io.Serializable;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Invokes a method through a class generated with {@link LambdaMetafactory}
+ * instead of {@link Method#invoke(Object, Object...)}. Used for RPC methods and
+ * event listener methods, which are invoked many times for each method.
+ * <p>
+ * Only public methods in public types that return <code>void</code> and have
+ * at most {@value #MAX_GENERATED_PARAMETERS} parameters are invoked through a
+ * generated class. Other methods, or methods in classes that are not visible
+ * to the class loader of Vaadin, are invoked reflectively. Generated classes
+ * can be disabled altogether by setting the system property
+ * {@value #DISABLE_PROPERTY} to <code>true</code>.
+ * <p>
+ * Used internally by Vaadin and should not be used by application developers.
+ * Subject to change at any time.
+ *
+ * @author Vaadin Ltd
+ * @since 8.0
+ */
+public final class MethodInvoker implements Serializable {
+
+    private static final int MAX_GENERATED_PARAMETERS = 3;
+
+    /**
+     * System property for invoking all methods reflectively.
+     */
+    public static final String DISABLE_PROPERTY = "vaadin.disableGeneratedInvokers";
+
+    private static final boolean disabled = Boolean
+            .getBoolean(DISABLE_PROPERTY);
+
+    private static final ConcurrentHashMap<Method, MethodInvoker> invokers = new ConcurrentHashMap<>();
+
+    @FunctionalInterface
+    interface Invoker0 extends Serializable {
+        void invoke(Object target);
+    }
+
+    @FunctionalInterface
+    interface Invoker1 extends Serializable {
+        void invoke(Object target, Object arg0);
+    }
+
+    @FunctionalInterface
+    interface Invoker2 extends Serializable {
+        void invoke(Object target, Object arg0, Object arg1);
+    }
+
+    @FunctionalInterface
+    interface Invoker3 extends Serializable {
+        void invoke(Object target, Object arg0, Object arg1, Object arg2);
+    }
+
+    private static final Class<?>[] INVOKER_TYPES = { Invoker0.class,
+            Invoker1.class, Invoker2.class, Invoker3.class };
+
+    private final transient Method method;
+
+    // One of the InvokerN types, or null to use reflection
+    private final transient Object invoker;
+
+    private MethodInvoker(Method method, Object invoker) {
+        this.method = method;
+        this.invoker = invoker;
+    }
+
+    /**
+     * Gets the invoker for the given method. Invokers are created once per
+     * method and shared.
+     *
+     * @param method
+     *            the method to invoke, not <code>null</code>
+     * @return the invoker for the method, not <code>null</code>
+     */
+    public static MethodInvoker forMethod(Method method) {
+        MethodInvoker methodInvoker = invokers.get(method);
+        if (methodInvoker == null) {
+            methodInvoker = invokers.computeIfAbsent(method,
+                    m -> new MethodInvoker(m, createInvoker(m)));
+        }
+        return methodInvoker;
+    }
+
+    /**
+     * Gets the method invoked by this invoker.
+     *
+     * @return the method, not <code>null</code>
+     */
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * Checks whether the method is invoked through a generated class instead
+     * of reflection.
+     *
+     * @return <code>true</code> if a generated class is used,
+     *         <code>false</code> if the method is invoked reflectively
+     */
+    public boolean isGenerated() {
+        return invoker != null;
+    }
+
+    /**
+     * Invokes the method on the given target with the given arguments.
+     *
+     * @param target
+     *            the object to invoke the method on
+     * @param args
+     *            the arguments to pass to the method
+     * @return the value returned by the method, or <code>null</code> if the
+     *         method returns <code>void</code>
+     * @throws IllegalAccessException
+     *             if the method is invoked reflectively and it is not
+     *             accessible
+     * @throws InvocationTargetException
+     *             if the invoked method throws an exception
+     */
+    public Object invoke(Object target, Object... args)
+            throws IllegalAccessException, InvocationTargetException {
+        if (invoker == null) {
+            return method.invoke(target, args);
+        }
+        if (args.length != method.getParameterCount()) {
+            throw new IllegalArgumentException(
+                    "Wrong number of arguments for " + method);
+        }
+        try {
+            switch (args.length) {
+            case 0:
+                ((Invoker0) invoker).invoke(target);
+                break;
+            case 1:
+                ((Invoker1) invoker).invoke(target, args[0]);
+                break;
+            case 2:
+                ((Invoker2) invoker).invoke(target, args[0], args[1]);
+                break;
+            default:
+                ((Invoker3) invoker).invoke(target, args[0], args[1],
+                        args[2]);
+                break;
+            }
+        } catch (Throwable t) {
+            throw new InvocationTargetException(t);
+        }
+        return null;
+    }
+
+    private static Object createInvoker(Method method) {
+        int parameterCount = method.getParameterCount();
+        if (disabled || parameterCount > MAX_GENERATED_PARAMETERS
+                || method.getReturnType() != void.class
+                || !Modifier.isPublic(method.getModifiers())
+                || Modifier.isStatic(method.getModifiers())
+                || !isAccessible(method.getDeclaringClass())) {
+            return null;
+        }
+        for (Class<?> parameterType : method.getParameterTypes()) {
+            if (!isAccessible(parameterType)) {
+                return null;
+            }
+        }
+
+        try {
+            Lookup lookup = MethodHandles.lookup();
+            MethodHandle handle = lookup.unreflect(method);
+            // Primitive parameters are unboxed by the generated class
+            MethodType instantiatedType = handle.type().wrap()
+                    .changeReturnType(void.class);
+            CallSite site = LambdaMetafactory.metafactory(lookup, "invoke",
+                    MethodType.methodType(INVOKER_TYPES[parameterCount]),
+                    instantiatedType.erase(), handle, instantiatedType);
+            return site.getTarget().invokeWithArguments();
+        } catch (Throwable t) {
+            getLogger().log(Level.FINE,
+                    "Could not generate invoker for " + method, t);
+            return null;
+        }
+    }
+
+    /**
+     * Checks whether a generated class can refer to the given type, i.e. that
+     * the type is public and visible to the class loader of this class.
+     */
+    private static boolean isAccessible(Class<?> type) {
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive()) {
+            return true;
+        }
+        if (!Modifier.isPublic(type.getModifiers())) {
+            return false;
+        }
+        try {
+            return Class.forName(type.getName(), false,
+                    MethodInvoker.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static Logger getLogger() {
+        return Logger.getLogger(MethodInvoker.class.getName());
+    }
+}
@@ -218,7 +218,9 @@
 				var versionInfo = getConfig('versionInfo');
 				
 				var themeUri = vaadinDir + 'themes/' + getConfig('theme');
-				loadTheme(themeUri, versionInfo && versionInfo['vaadinVersion']);
+				// Content hash of the theme if known, otherwise the Vaadin version
+				var themeVersion = getConfig('themeVersion') || (versionInfo && versionInfo['vaadinVersion']);
+				loadTheme(themeUri, themeVersion);
 				
 				var widgetset = getConfig('widgetset');
 				var widgetsetUrl = getConfig('widgetsetUrl');
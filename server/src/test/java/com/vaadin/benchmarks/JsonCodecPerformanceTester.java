@@ -0,0 +1,107 @@
+package com.vaadin.benchmarks;
+
+import java.lang.reflect.Type;
+
+import com.vaadin.server.EncodeResult;
+import com.vaadin.server.JsonCodec;
+import com.vaadin.server.JsonCodec.BeanProperty;
+import com.vaadin.shared.ui.textfield.TextFieldState;
+
+import elemental.json.Json;
+import elemental.json.JsonNull;
+import elemental.json.JsonObject;
+import elemental.json.JsonValue;
+
+/*
+ * Compares encoding a shared state with the compiled per-class encoders in
+ * JsonCodec against the previous approach of reading every property
+ * reflectively through BeanProperty, encoding it and comparing the result to
+ * the diff state with JsonCodec.jsonEquals.
+ *
+ * Each round changes one property of the state and encodes it against the
+ * result of the previous round, which is what happens for a connector that
+ * is marked dirty in consecutive round trips.
+ *
+ * Please run with -server and -verbose:gc. Your results will vary.
+ */
+public class JsonCodecPerformanceTester {
+
+    public static void main(String[] args) throws Exception {
+        warmup();
+
+        long start = System.currentTimeMillis();
+        runReflective(1000000);
+        long end = System.currentTimeMillis();
+        System.out.println("reflective took " + (end - start) + " ms");
+
+        start = System.currentTimeMillis();
+        runCompiled(1000000);
+        end = System.currentTimeMillis();
+        System.out.println("compiled took " + (end - start) + " ms");
+    }
+
+    private static void warmup() throws Exception {
+        runReflective(100000);
+        runCompiled(100000);
+        System.gc();
+        System.out.println("warmup and gc complete. sleeping 5 seconds.");
+        Thread.sleep(5000l);
+        System.out.println("woke up - go.");
+    }
+
+    private static void runCompiled(int loops) {
+        TextFieldState state = new TextFieldState();
+        JsonValue diffState = null;
+        for (int i = 0; i < loops; i++) {
+            state.text = "Value " + (i % 10);
+            EncodeResult result = JsonCodec.encode(state, diffState,
+                    TextFieldState.class, null);
+            diffState = result.getEncodedValue();
+        }
+    }
+
+    private static void runReflective(int loops) throws Exception {
+        TextFieldState state = new TextFieldState();
+        JsonObject diffState = null;
+        for (int i = 0; i < loops; i++) {
+            state.text = "Value " + (i % 10);
+            diffState = encodeReflectively(state, diffState);
+        }
+    }
+
+    private static JsonObject encodeReflectively(Object value,
+            JsonObject referenceValue) throws Exception {
+        JsonObject encoded = Json.createObject();
+        JsonObject diff = Json.createObject();
+        for (BeanProperty property : JsonCodec
+                .getProperties(value.getClass())) {
+            String fieldName = property.getName();
+            Type fieldType = property.getType();
+            Object fieldValue = property.getValue(value);
+
+            JsonValue fieldReference = null;
+            if (referenceValue != null) {
+                fieldReference = referenceValue.get(fieldName);
+                if (fieldReference instanceof JsonNull) {
+                    fieldReference = null;
+                }
+            }
+
+            EncodeResult encodeResult = JsonCodec.encode(fieldValue,
+                    fieldReference, fieldType, null);
+            JsonValue encodedValue = encodeResult.getEncodedValue();
+            encoded.put(fieldName, encodedValue);
+
+            if (encodedValue instanceof JsonNull) {
+                encodedValue = null;
+            }
+            if (encodedValue != fieldReference && (encodedValue == null
+                    || fieldReference == null
+                    || !JsonCodec.jsonEquals(encodedValue, fieldReference))) {
+                diff.put(fieldName, encodeResult.getDiffOrValue());
+            }
+        }
+        return encoded;
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.vaadin.benchmarks;
+
+import java.io.File;
+
+import com.vaadin.event.EventRouter;
+import com.vaadin.server.ServerRpcManager;
+import com.vaadin.server.ServerRpcMethodInvocation;
+import com.vaadin.shared.MouseEventDetails;
+import com.vaadin.shared.ui.ClickRpc;
+import com.vaadin.ui.Button;
+import com.vaadin.ui.Button.ClickEvent;
+import com.vaadin.ui.Button.ClickListener;
+import com.vaadin.util.MethodInvoker;
+
+/*
+ * Compares the per-event cost of the dispatch done for a button click: looking
+ * up and invoking the server RPC method through ServerRpcManager and then
+ * firing the click event to the listeners of the button through EventRouter.
+ *
+ * The same dispatch is run twice, each time in a new JVM since MethodInvoker
+ * caches its invokers. The "reflective" run sets the system property
+ * MethodInvoker.DISABLE_PROPERTY so that both the RPC method and the listeners
+ * are invoked with Method.invoke. The "generated" run uses the classes
+ * generated by MethodInvoker.
+ *
+ * Please run with -server and -verbose:gc. Your results will vary.
+ */
+public class ListenerDispatchPerformanceTester {
+
+    private static final int LISTENERS = 3;
+
+    private static int clicks;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0) {
+            warmup();
+
+            long start = System.currentTimeMillis();
+            run(10000000);
+            long end = System.currentTimeMillis();
+            System.out.println(args[0] + " took " + (end - start) + " ms");
+        } else {
+            runInNewJvm("reflective", true);
+            runInNewJvm("generated", false);
+        }
+    }
+
+    private static void runInNewJvm(String name, boolean disableInvokers)
+            throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin"
+                + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-server",
+                "-D" + MethodInvoker.DISABLE_PROPERTY + "=" + disableInvokers,
+                "-cp", System.getProperty("java.class.path"),
+                ListenerDispatchPerformanceTester.class.getName(), name)
+                        .inheritIO().start();
+        process.waitFor();
+    }
+
+    private static void warmup() throws Exception {
+        run(1000000);
+        System.gc();
+        System.out.println("warmup and gc complete. sleeping 5 seconds.");
+        Thread.sleep(5000l);
+        System.out.println("woke up - go.");
+    }
+
+    private static void run(int loops) throws Exception {
+        Button button = new Button();
+        EventRouter router = new EventRouter();
+        for (int i = 0; i < LISTENERS; i++) {
+            router.addListener(ClickEvent.class, createListener(),
+                    ClickListener.BUTTON_CLICK_METHOD);
+        }
+        ClickRpc rpc = details -> router
+                .fireEvent(new ClickEvent(button, details));
+        ServerRpcManager<ClickRpc> manager = new ServerRpcManager<>(rpc,
+                ClickRpc.class);
+        Object[] parameters = { new MouseEventDetails() };
+
+        for (int i = 0; i < loops; i++) {
+            ServerRpcMethodInvocation invocation = new ServerRpcMethodInvocation(
+                    "1", ClickRpc.class, "click", 1);
+            invocation.setParameters(parameters);
+            manager.applyInvocation(invocation);
+        }
+    }
+
+    private static ClickListener createListener() {
+        return event -> clicks++;
+    }
+}
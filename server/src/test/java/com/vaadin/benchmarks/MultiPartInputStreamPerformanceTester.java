@@ -0,0 +1,266 @@
+package com.vaadin.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import com.vaadin.server.communication.FileUploadHandler.SimpleMultiPartInputStream;
+
+/*
+ * Compares the throughput of the block based multipart parser in
+ * FileUploadHandler against the previous implementation that read the
+ * request one byte at a time while matching the boundary.
+ *
+ * Both parsers read a generated 256 MB upload into a 4 KB buffer, in the
+ * same way as FileUploadHandler.streamToReceiver.
+ *
+ * Please run with -server and -verbose:gc. Your results will vary.
+ */
+public class MultiPartInputStreamPerformanceTester {
+
+    private static final String BOUNDARY = "----WebKitFormBoundaryx8QqfS7OaA4mWYqM";
+
+    private static final long CONTENT_LENGTH = 256 * 1024 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        warmup();
+
+        long start = System.currentTimeMillis();
+        long read = readByteByByte(CONTENT_LENGTH);
+        long end = System.currentTimeMillis();
+        System.out.println("byte by byte read " + read + " bytes in "
+                + (end - start) + " ms");
+
+        start = System.currentTimeMillis();
+        read = readBuffered(CONTENT_LENGTH);
+        end = System.currentTimeMillis();
+        System.out.println("buffered read " + read + " bytes in "
+                + (end - start) + " ms");
+    }
+
+    private static void warmup() throws Exception {
+        readByteByByte(CONTENT_LENGTH / 16);
+        readBuffered(CONTENT_LENGTH / 16);
+        System.gc();
+        System.out.println("warmup and gc complete. sleeping 5 seconds.");
+        Thread.sleep(5000l);
+        System.out.println("woke up - go.");
+    }
+
+    private static long readByteByByte(long contentLength) throws IOException {
+        return readFully(new ByteByByteMultiPartInputStream(
+                new UploadInputStream(contentLength), BOUNDARY));
+    }
+
+    private static long readBuffered(long contentLength) throws IOException {
+        return readFully(new SimpleMultiPartInputStream(
+                new UploadInputStream(contentLength), BOUNDARY));
+    }
+
+    private static long readFully(InputStream in) throws IOException {
+        byte[] buffer = new byte[4 * 1024];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) > 0) {
+            total += read;
+        }
+        return total;
+    }
+
+    /**
+     * Generates upload content that contains plenty of carriage returns and
+     * dashes followed by the end boundary, handing out data in chunks like a
+     * servlet input stream would.
+     */
+    private static class UploadInputStream extends InputStream {
+        private static final byte[] PATTERN = "lorem ipsum\r\n-- dolor sit amet\r\n"
+                .getBytes();
+        private static final int CHUNK_SIZE = 8 * 1024;
+
+        private final byte[] content = new byte[CHUNK_SIZE + PATTERN.length];
+        private final byte[] end = ("\r\n--" + BOUNDARY + "--\r\n")
+                .getBytes();
+        private final long contentLength;
+        private long position = 0;
+
+        public UploadInputStream(long contentLength) {
+            this.contentLength = contentLength;
+            for (int i = 0; i < content.length; i++) {
+                content[i] = PATTERN[i % PATTERN.length];
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position < contentLength) {
+                int count = (int) Math.min(Math.min(len, CHUNK_SIZE),
+                        contentLength - position);
+                System.arraycopy(content,
+                        (int) (position % PATTERN.length), b, off, count);
+                position += count;
+                return count;
+            }
+            int endIndex = (int) (position - contentLength);
+            if (endIndex >= end.length) {
+                return -1;
+            }
+            int count = Math.min(len, end.length - endIndex);
+            System.arraycopy(end, endIndex, b, off, count);
+            position += count;
+            return count;
+        }
+    }
+
+    /**
+     * The previous implementation of SimpleMultiPartInputStream.
+     */
+    private static class ByteByByteMultiPartInputStream extends InputStream {
+
+        /**
+         * Counter of how many characters have been matched to boundary string
+         * from the stream
+         */
+        int matchedCount = -1;
+
+        /**
+         * Used as pointer when returning bytes after partly matched boundary
+         * string.
+         */
+        int curBoundaryIndex = 0;
+        /**
+         * The byte found after a "promising start for boundary"
+         */
+        private int bufferedByte = -1;
+        private boolean atTheEnd = false;
+
+        private final char[] boundary;
+
+        private final InputStream realInputStream;
+
+        public ByteByByteMultiPartInputStream(InputStream realInputStream,
+                String boundaryString) {
+            boundary = ("\r\n--" + boundaryString).toCharArray();
+            this.realInputStream = realInputStream;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (atTheEnd) {
+                // End boundary reached, nothing more to read
+                return -1;
+            } else if (bufferedByte >= 0) {
+                /* Purge partially matched boundary if there was such */
+                return getBuffered();
+            } else if (matchedCount != -1) {
+                /*
+                 * Special case where last "failed" matching ended with first
+                 * character from boundary string
+                 */
+                return matchForBoundary();
+            } else {
+                int fromActualStream = realInputStream.read();
+                if (fromActualStream == -1) {
+                    // unexpected end of stream
+                    throw new IOException(
+                            "The multipart stream ended unexpectedly");
+                }
+                if (boundary[0] == fromActualStream) {
+                    /*
+                     * If matches the first character in boundary string, start
+                     * checking if the boundary is fetched.
+                     */
+                    return matchForBoundary();
+                }
+                return fromActualStream;
+            }
+        }
+
+        /**
+         * Reads the input to expect a boundary string. Expects that the first
+         * character has already been matched.
+         *
+         * @return -1 if the boundary was matched, else returns the first byte
+         *         from boundary
+         * @throws IOException
+         */
+        private int matchForBoundary() throws IOException {
+            matchedCount = 0;
+            /*
+             * Going to "buffered mode". Read until full boundary match or a
+             * different character.
+             */
+            while (true) {
+                matchedCount++;
+                if (matchedCount == boundary.length) {
+                    /*
+                     * The whole boundary matched so we have reached the end of
+                     * file
+                     */
+                    atTheEnd = true;
+                    return -1;
+                }
+                int fromActualStream = realInputStream.read();
+                if (fromActualStream != boundary[matchedCount]) {
+                    /*
+                     * Did not find full boundary, cache the mismatching byte
+                     * and start returning the partially matched boundary.
+                     */
+                    bufferedByte = fromActualStream;
+                    return getBuffered();
+                }
+            }
+        }
+
+        /**
+         * Returns the partly matched boundary string and the byte following
+         * that.
+         *
+         * @return
+         * @throws IOException
+         */
+        private int getBuffered() throws IOException {
+            int b;
+            if (matchedCount == 0) {
+                // The boundary has been returned, return the buffered byte.
+                b = bufferedByte;
+                bufferedByte = -1;
+                matchedCount = -1;
+            } else {
+                b = boundary[curBoundaryIndex++];
+                if (curBoundaryIndex == matchedCount) {
+                    // The full boundary has been returned, remaining is the
+                    // char that did not match the boundary.
+
+                    curBoundaryIndex = 0;
+                    if (bufferedByte != boundary[0]) {
+                        /*
+                         * next call for getBuffered will return the
+                         * bufferedByte that came after the partial boundary
+                         * match
+                         */
+                        matchedCount = 0;
+                    } else {
+                        /*
+                         * Special case where buffered byte again matches the
+                         * boundaryString. This could be the start of the real
+                         * end boundary.
+                         */
+                        matchedCount = 0;
+                        bufferedByte = -1;
+                    }
+                }
+            }
+            if (b == -1) {
+                throw new IOException(
+                        "The multipart stream ended unexpectedly");
+            }
+            return b;
+        }
+    }
+
+}
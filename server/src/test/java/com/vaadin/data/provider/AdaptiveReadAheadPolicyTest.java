@@ -0,0 +1,67 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.data.provider;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.shared.Range;
+
+public class AdaptiveReadAheadPolicyTest {
+
+    private final AdaptiveReadAheadPolicy policy = new AdaptiveReadAheadPolicy(
+            100);
+
+    @Test
+    public void noPreviousRange_requestedRangePushed() {
+        Assert.assertEquals(Range.between(40, 80), policy.getRangeToPush(
+                Range.between(40, 80), Range.withLength(0, 0)));
+    }
+
+    @Test
+    public void scrollingDown_readAheadGrowsUpToMax() {
+        Range pushed = policy.getRangeToPush(Range.between(40, 80),
+                Range.between(0, 40));
+        Assert.assertEquals(Range.between(40, 120), pushed);
+
+        pushed = policy.getRangeToPush(Range.between(120, 160), pushed);
+        Assert.assertEquals(Range.between(120, 240), pushed);
+
+        pushed = policy.getRangeToPush(Range.between(240, 280), pushed);
+        Assert.assertEquals(Range.between(240, 380), pushed);
+    }
+
+    @Test
+    public void scrollingUp_readAheadStopsAtZero() {
+        Range pushed = policy.getRangeToPush(Range.between(160, 200),
+                Range.between(200, 240));
+        Assert.assertEquals(Range.between(120, 200), pushed);
+
+        pushed = policy.getRangeToPush(Range.between(80, 120), pushed);
+        Assert.assertEquals(Range.between(0, 120), pushed);
+    }
+
+    @Test
+    public void jump_requestedRangePushed() {
+        Assert.assertEquals(Range.between(1000, 1040), policy.getRangeToPush(
+                Range.between(1000, 1040), Range.between(0, 40)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeMaxReadAhead_throws() {
+        new AdaptiveReadAheadPolicy(-1);
+    }
+}
@@ -15,18 +15,24 @@
  */
 package com.vaadin.data.provider;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import com.vaadin.server.ClientMethodInvocation;
 import com.vaadin.server.MockVaadinSession;
 import com.vaadin.server.VaadinRequest;
 import com.vaadin.server.VaadinService;
 import com.vaadin.server.VaadinSession;
+import com.vaadin.shared.Range;
 import com.vaadin.shared.Registration;
+import com.vaadin.shared.data.DataRequestRpc;
 import com.vaadin.ui.UI;
 
 import elemental.json.JsonObject;
@@ -191,4 +197,179 @@ public class DataCommunicatorTest {
                 TEST_OBJECT, generator.generated);
     }
 
+    @Test
+    public void requestRows_adjacentRequestsFetchedInOneQuery() {
+        session.lock();
+
+        UI ui = new TestUI(session);
+        TestDataCommunicator communicator = new TestDataCommunicator();
+        communicator.extend(ui);
+        communicator.setReadAheadPolicy(ReadAheadPolicy.NONE);
+
+        List<Range> fetched = new ArrayList<>();
+        communicator.setDataProvider(new CallbackDataProvider<>(query -> {
+            fetched.add(Range.withLength(query.getOffset(), query.getLimit()));
+            return Stream.empty();
+        }, query -> 1000), null);
+        communicator.beforeClientResponse(true);
+        fetched.clear();
+
+        DataRequestRpc rpc = communicator.new SimpleDataRequestRpc();
+        rpc.requestRows(40, 20, 0, 40);
+        rpc.requestRows(60, 20, 0, 40);
+        communicator.beforeClientResponse(false);
+
+        Assert.assertEquals(Collections.singletonList(Range.between(40, 80)),
+                fetched);
+    }
+
+    @Test
+    public void requestRows_readAheadWhenScrolling() {
+        session.lock();
+
+        UI ui = new TestUI(session);
+        TestDataCommunicator communicator = new TestDataCommunicator();
+        communicator.extend(ui);
+
+        List<Range> fetched = new ArrayList<>();
+        communicator.setDataProvider(new CallbackDataProvider<>(query -> {
+            fetched.add(Range.withLength(query.getOffset(), query.getLimit()));
+            return Stream.empty();
+        }, query -> 1000), null);
+        communicator.beforeClientResponse(true);
+
+        DataRequestRpc rpc = communicator.new SimpleDataRequestRpc();
+        rpc.requestRows(40, 40, 0, 40);
+        communicator.beforeClientResponse(false);
+        rpc.requestRows(120, 40, 0, 120);
+        communicator.beforeClientResponse(false);
+
+        Assert.assertEquals(Range.between(0, 40), fetched.get(0));
+        Assert.assertEquals(Range.between(40, 120), fetched.get(1));
+        Assert.assertEquals(Range.between(120, 240), fetched.get(2));
+    }
+
+    @Test
+    public void fetchExecutor_backEndQueriedOutsideResponse() {
+        session.lock();
+
+        UI ui = new TestUI(session);
+        TestDataCommunicator communicator = new TestDataCommunicator();
+        communicator.extend(ui);
+
+        List<Runnable> tasks = new ArrayList<>();
+        communicator.setFetchExecutor(tasks::add);
+
+        List<Range> fetched = new ArrayList<>();
+        communicator.setDataProvider(new CallbackDataProvider<>(query -> {
+            fetched.add(Range.withLength(query.getOffset(), query.getLimit()));
+            return Stream.of(TEST_OBJECT);
+        }, query -> 1), null);
+        TestDataGenerator generator = new TestDataGenerator();
+        communicator.addDataGenerator(generator);
+
+        communicator.beforeClientResponse(true);
+        Assert.assertTrue("Back end should not be queried in the response",
+                fetched.isEmpty());
+        Assert.assertEquals(2, tasks.size());
+
+        tasks.forEach(Runnable::run);
+        Assert.assertEquals(Collections.singletonList(Range.between(0, 40)),
+                fetched);
+        Assert.assertEquals("Fetched rows should be generated once available",
+                TEST_OBJECT, generator.generated);
+    }
+
+    @Test
+    public void fetchExecutor_resultsDiscardedAfterReset() {
+        session.lock();
+
+        UI ui = new TestUI(session);
+        TestDataCommunicator communicator = new TestDataCommunicator();
+        communicator.extend(ui);
+
+        List<Runnable> tasks = new ArrayList<>();
+        communicator.setFetchExecutor(tasks::add);
+        communicator.setDataProvider(new CallbackDataProvider<>(
+                query -> Stream.of(TEST_OBJECT), query -> 1), null);
+        TestDataGenerator generator = new TestDataGenerator();
+        communicator.addDataGenerator(generator);
+
+        communicator.beforeClientResponse(true);
+        communicator.reset();
+        tasks.forEach(Runnable::run);
+
+        Assert.assertNull("Outdated rows should not be sent",
+                generator.generated);
+    }
+
+    @Test
+    public void fetchExecutor_wrappedBackEnd_queriedOutsideResponse() {
+        session.lock();
+
+        UI ui = new TestUI(session);
+        TestDataCommunicator communicator = new TestDataCommunicator();
+        communicator.extend(ui);
+
+        List<Runnable> tasks = new ArrayList<>();
+        communicator.setFetchExecutor(tasks::add);
+
+        List<Object> filters = new ArrayList<>();
+        communicator.setDataProvider(new CallbackDataProvider<>(query -> {
+            filters.add(query.getFilter().orElse(null));
+            return Stream.of(TEST_OBJECT);
+        }, query -> 1).withConfigurableFilter(), null);
+        TestDataGenerator generator = new TestDataGenerator();
+        communicator.addDataGenerator(generator);
+
+        communicator.beforeClientResponse(true);
+        Assert.assertEquals(2, tasks.size());
+
+        tasks.forEach(Runnable::run);
+        Assert.assertEquals(Collections.singletonList(null), filters);
+        Assert.assertEquals(TEST_OBJECT, generator.generated);
+    }
+
+    @Test
+    public void fetchExecutor_fetchFails_clientResetAndErrorReported() {
+        session.lock();
+
+        List<Exception> errors = new ArrayList<>();
+        UI ui = new TestUI(session) {
+            @Override
+            public Future<Void> access(Runnable runnable) {
+                try {
+                    runnable.run();
+                } catch (Exception e) {
+                    errors.add(e);
+                }
+                return null;
+            }
+        };
+        TestDataCommunicator communicator = new TestDataCommunicator();
+        communicator.extend(ui);
+
+        List<Runnable> tasks = new ArrayList<>();
+        communicator.setFetchExecutor(tasks::add);
+
+        IllegalStateException failure = new IllegalStateException();
+        communicator.setDataProvider(new CallbackDataProvider<>(query -> {
+            throw failure;
+        }, query -> 1), null);
+
+        communicator.beforeClientResponse(true);
+        communicator.retrievePendingRpcCalls();
+        tasks.forEach(Runnable::run);
+
+        List<ClientMethodInvocation> calls = communicator
+                .retrievePendingRpcCalls();
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals("reset", calls.get(0).getMethodName());
+        Assert.assertArrayEquals(new Object[] { 0 },
+                calls.get(0).getParameters());
+
+        Assert.assertEquals(1, errors.size());
+        Assert.assertSame(failure, errors.get(0).getCause());
+    }
+
 }
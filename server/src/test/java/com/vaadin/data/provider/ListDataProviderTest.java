@@ -3,12 +3,16 @@ package com.vaadin.data.provider;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.junit.Assert;
 import org.junit.Test;
 
 import com.vaadin.server.SerializableComparator;
+import com.vaadin.server.SerializablePredicate;
 import com.vaadin.shared.data.sort.SortDirection;
 
 public class ListDataProviderTest
@@ -217,6 +221,157 @@ public class ListDataProviderTest
         assertSizeWithFilter(0, filteringBy, "oo");
     }
 
+    @Test
+    public void fetchRanges_sortedOnlyOnce() {
+        AtomicInteger comparisons = new AtomicInteger();
+        Comparator<StrBean> comparator = (a, b) -> {
+            comparisons.incrementAndGet();
+            return Integer.compare(b.getId(), a.getId());
+        };
+        dataProvider.setCachingEnabled(true);
+
+        List<StrBean> firstRange = dataProvider
+                .fetch(new Query<>(0, 10, null, comparator, null))
+                .collect(Collectors.toList());
+        int comparisonsAfterFirstFetch = comparisons.get();
+        List<StrBean> secondRange = dataProvider
+                .fetch(new Query<>(10, 10, null, comparator, null))
+                .collect(Collectors.toList());
+
+        Assert.assertEquals(98, firstRange.get(0).getId());
+        Assert.assertEquals(88, secondRange.get(0).getId());
+        Assert.assertEquals(10, secondRange.size());
+        Assert.assertEquals("Second range should be served from the cache",
+                comparisonsAfterFirstFetch, comparisons.get());
+    }
+
+    @Test
+    public void cachingDisabled_sameSizeChangeVisibleWithoutRefresh() {
+        Comparator<StrBean> comparator = Comparator
+                .comparing(StrBean::getValue);
+        dataProvider.fetch(new Query<>(0, 10, null, comparator, null))
+                .count();
+
+        StrBean replacement = new StrBean("000", 100, 0);
+        data.set(50, replacement);
+
+        Assert.assertSame(replacement,
+                dataProvider.fetch(new Query<>(0, 1, null, comparator, null))
+                        .findFirst().get());
+    }
+
+    @Test
+    public void filteringBy_sameFilterValue_servedFromCache() {
+        AtomicInteger tests = new AtomicInteger();
+        DataProvider<StrBean, String> filteringBy = dataProvider
+                .filteringBy((item, filterValue) -> {
+                    tests.incrementAndGet();
+                    return item.getValue().equals(filterValue);
+                });
+        dataProvider.setCachingEnabled(true);
+
+        assertSizeWithFilter(36, filteringBy, "Foo");
+        int testsAfterFirstQuery = tests.get();
+        assertSizeWithFilter(36, filteringBy, "Foo");
+
+        Assert.assertEquals(
+                "Second query with the same filter value should be served from the cache",
+                testsAfterFirstQuery, tests.get());
+
+        assertSizeWithFilter(0, filteringBy, "Qux");
+        Assert.assertNotEquals(testsAfterFirstQuery, tests.get());
+    }
+
+    @Test
+    public void fetchRange_pastEnd() {
+        Assert.assertEquals(0, dataProvider
+                .fetch(new Query<>(200, 10, null, null, null)).count());
+        Assert.assertEquals(10, dataProvider
+                .fetch(new Query<>(90, 50, null, null, null)).count());
+    }
+
+    @Test
+    public void refreshItem_cacheInvalidated() {
+        Comparator<StrBean> comparator = Comparator
+                .comparing(StrBean::getValue);
+        dataProvider.setCachingEnabled(true);
+        StrBean first = dataProvider
+                .fetch(new Query<>(0, 1, null, comparator, null)).findFirst()
+                .get();
+
+        first.setValue("zzz");
+        dataProvider.refreshItem(first);
+
+        List<StrBean> items = dataProvider
+                .fetch(new Query<>(0, 100, null, comparator, null))
+                .collect(Collectors.toList());
+        Assert.assertSame(first, items.get(items.size() - 1));
+    }
+
+    @Test
+    public void refreshAll_cacheInvalidated() {
+        dataProvider.setCachingEnabled(true);
+        Assert.assertEquals(36, dataProvider
+                .size(new Query<>(item -> item.getValue().equals("Foo"))));
+
+        data.stream().filter(item -> item.getValue().equals("Foo")).findFirst()
+                .get().setValue("Bar");
+        dataProvider.refreshAll();
+
+        Assert.assertEquals(35, dataProvider
+                .size(new Query<>(item -> item.getValue().equals("Foo"))));
+    }
+
+    @Test
+    public void backendSizeChanged_cacheInvalidated() {
+        dataProvider.setCachingEnabled(true);
+        Assert.assertEquals(100, sizeWithUnfilteredQuery());
+
+        data.add(new StrBean("Added", 100, 0));
+
+        Assert.assertEquals(101, sizeWithUnfilteredQuery());
+    }
+
+    @Test
+    public void parallelThreshold_sameResultAsSequential() {
+        Comparator<StrBean> comparator = Comparator
+                .comparing(StrBean::getValue);
+        Query<StrBean, SerializablePredicate<StrBean>> query = new Query<>(0,
+                100, null, comparator, item -> item.getId() % 3 != 0);
+
+        List<StrBean> sequential = dataProvider.fetch(query)
+                .collect(Collectors.toList());
+
+        dataProvider.setParallelThreshold(0);
+        dataProvider.refreshAll();
+        List<StrBean> parallel = dataProvider.fetch(query)
+                .collect(Collectors.toList());
+
+        Assert.assertEquals(sequential, parallel);
+    }
+
+    @Test
+    public void parallelThreshold_runsInProvidedPool() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            dataProvider.setForkJoinPoolSupplier(() -> pool);
+            dataProvider.setParallelThreshold(50);
+
+            dataProvider.fetch(new Query<>(0, 10, null, (a, b) -> {
+                Assert.assertSame(pool, ForkJoinTask.getPool());
+                return a.getValue().compareTo(b.getValue());
+            }, null)).count();
+
+            // Below the threshold, the current thread is used
+            dataProvider.fetch(new Query<>(0, 10, null, (a, b) -> {
+                Assert.assertNull(ForkJoinTask.getPool());
+                return a.getValue().compareTo(b.getValue());
+            }, item -> item.getId() < 10)).count();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
     @Override
     protected void setSortOrder(List<QuerySortOrder> sortOrder,
             Comparator<StrBean> comp) {
@@ -19,6 +19,8 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.util.List;
+
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -26,6 +28,7 @@ import org.mockito.Mockito;
 import com.vaadin.shared.MouseEventDetails;
 import com.vaadin.shared.communication.FieldRpc.BlurServerRpc;
 import com.vaadin.shared.ui.ClickRpc;
+import com.vaadin.ui.TextField;
 
 /**
  * We test that AbstractClientConnector has a suitable isThis method which is
@@ -70,6 +73,24 @@ public class AbstractClientConnectorTest {
         verify(mock, times(1)).registerRpc(implementation, ClickRpc.class);
     }
 
+    @Test
+    public void lastOnlyClientRpc_previousInvocationsRemoved() {
+        TextField field = new TextField();
+        field.setSelection(0, 1);
+        field.selectAll();
+        field.setSelection(1, 2);
+        field.setSelection(2, 3);
+
+        List<ClientMethodInvocation> invocations = field
+                .retrievePendingRpcCalls();
+        Assert.assertEquals(2, invocations.size());
+        Assert.assertEquals("selectAll", invocations.get(0).getMethodName());
+        ClientMethodInvocation selectRange = invocations.get(1);
+        Assert.assertEquals("selectRange", selectRange.getMethodName());
+        Assert.assertArrayEquals(new Object[] { 2, 3 },
+                selectRange.getParameters());
+    }
+
     private class ServerRpcLastMock
             implements Comparable<ServerRpcLastMock>, ClickRpc {
         private static final long serialVersionUID = -2822356895755286180L;
@@ -3,19 +3,33 @@ package com.vaadin.server;
 import static org.mockito.Matchers.contains;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URLEncoder;
+import java.nio.file.Files;
 
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class DownloadStreamTest {
     private final String filename = "日本語.png";
     private DownloadStream stream;
 
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     @Before
     public void setup() {
         stream = new DownloadStream(mock(InputStream.class), "", filename);
@@ -34,4 +48,110 @@ public class DownloadStreamTest {
                 contains(
                         String.format("filename*=utf-8''%s", encodedFileName)));
     }
+
+    @Test
+    public void rangeRequest_partialContentWritten() throws IOException {
+        DownloadStream stream = createStream("0123456789");
+        VaadinRequest request = createRangeRequest("bytes=2-5");
+        VaadinResponse response = mock(VaadinResponse.class);
+        ByteArrayOutputStream out = mockOutput(response);
+
+        stream.writeResponse(request, response);
+
+        Assert.assertEquals("2345", out.toString("UTF-8"));
+        verify(response).setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        verify(response).setHeader("Content-Range", "bytes 2-5/10");
+        verify(response).setHeader("Content-Length", "4");
+    }
+
+    @Test
+    public void parseRange() {
+        Assert.assertArrayEquals(new long[] { 0, 9 },
+                DownloadStream.parseRange("bytes=0-", 10));
+        Assert.assertArrayEquals(new long[] { 7, 9 },
+                DownloadStream.parseRange("bytes=-3", 10));
+        Assert.assertArrayEquals(new long[] { 0, 9 },
+                DownloadStream.parseRange("bytes=-30", 10));
+        Assert.assertArrayEquals(new long[] { 5, 9 },
+                DownloadStream.parseRange("bytes=5-100", 10));
+        Assert.assertArrayEquals(new long[0],
+                DownloadStream.parseRange("bytes=10-", 10));
+
+        Assert.assertNull(DownloadStream.parseRange("bytes=5-2", 10));
+        Assert.assertNull(DownloadStream.parseRange("bytes=0-1,4-5", 10));
+        Assert.assertNull(DownloadStream.parseRange("items=0-1", 10));
+        Assert.assertNull(DownloadStream.parseRange("bytes=a-b", 10));
+    }
+
+    @Test
+    public void unsatisfiableRange_rangeNotSatisfiableSent()
+            throws IOException {
+        DownloadStream stream = createStream("0123456789");
+        VaadinRequest request = createRangeRequest("bytes=20-");
+        VaadinResponse response = mock(VaadinResponse.class);
+
+        stream.writeResponse(request, response);
+
+        verify(response).setStatus(
+                HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        verify(response).setHeader("Content-Range", "bytes */10");
+        verify(response, never()).getOutputStream();
+    }
+
+    @Test
+    public void ifRangeNotMatching_wholeContentWritten() throws IOException {
+        DownloadStream stream = createStream("0123456789");
+        stream.setParameter("ETag", "\"abc\"");
+        VaadinRequest request = createRangeRequest("bytes=2-5");
+        when(request.getHeader("If-Range")).thenReturn("\"def\"");
+        VaadinResponse response = mock(VaadinResponse.class);
+        ByteArrayOutputStream out = mockOutput(response);
+
+        stream.writeResponse(request, response);
+
+        Assert.assertEquals("0123456789", out.toString("UTF-8"));
+        verify(response, never())
+                .setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+    }
+
+    @Test
+    public void fileResource_rangeTransferredFromFile() throws IOException {
+        File file = temporaryFolder.newFile("data.txt");
+        Files.write(file.toPath(), "0123456789".getBytes("UTF-8"));
+        DownloadStream stream = new FileResource(file).getStream();
+        VaadinRequest request = createRangeRequest("bytes=-3");
+        when(request.getHeader("If-Range"))
+                .thenReturn(stream.getParameter("Last-Modified"));
+        VaadinResponse response = mock(VaadinResponse.class);
+        ByteArrayOutputStream out = mockOutput(response);
+
+        stream.writeResponse(request, response);
+
+        Assert.assertEquals("789", out.toString("UTF-8"));
+        verify(response).setHeader("Content-Range", "bytes 7-9/10");
+    }
+
+    private static DownloadStream createStream(String content)
+            throws IOException {
+        DownloadStream stream = new DownloadStream(
+                new ByteArrayInputStream(content.getBytes("UTF-8")),
+                "text/plain", "data.txt");
+        stream.setParameter("Content-Length",
+                String.valueOf(content.length()));
+        return stream;
+    }
+
+    private static VaadinRequest createRangeRequest(String range) {
+        VaadinRequest request = mock(VaadinRequest.class);
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getHeader("Range")).thenReturn(range);
+        return request;
+    }
+
+    private static ByteArrayOutputStream mockOutput(VaadinResponse response)
+            throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        when(response.getOutputStream()).thenReturn(out);
+        return out;
+    }
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DurationHistogramTest {
+
+    @Test
+    public void emptyHistogram() {
+        DurationHistogram histogram = new DurationHistogram();
+
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getAverageNanos());
+        Assert.assertEquals(0, histogram.getPercentileNanos(50));
+    }
+
+    @Test
+    public void recordDurations_statisticsUpdated() {
+        DurationHistogram histogram = new DurationHistogram();
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1000);
+        }
+
+        Assert.assertEquals(100, histogram.getCount());
+        Assert.assertEquals(5050000, histogram.getTotalNanos());
+        Assert.assertEquals(50500, histogram.getAverageNanos());
+        Assert.assertEquals(100000, histogram.getMaxNanos());
+
+        // Estimates are rounded up to the bucket bounds
+        long median = histogram.getPercentileNanos(50);
+        Assert.assertTrue(median >= 50000 && median < 100000);
+        Assert.assertEquals(100000, histogram.getPercentileNanos(100));
+    }
+
+    @Test
+    public void bucketBounds() {
+        DurationHistogram histogram = new DurationHistogram();
+        histogram.record(0);
+        histogram.record(1);
+        histogram.record(3);
+        histogram.record(4);
+        histogram.record(Long.MAX_VALUE);
+
+        long[] counts = histogram.getBucketCounts();
+        Assert.assertEquals(1, counts[0]);
+        Assert.assertEquals(1, counts[1]);
+        Assert.assertEquals(1, counts[2]);
+        Assert.assertEquals(1, counts[3]);
+        Assert.assertEquals(1, counts[DurationHistogram.BUCKET_COUNT - 1]);
+
+        Assert.assertEquals(0, DurationHistogram.getBucketUpperBound(0));
+        Assert.assertEquals(3, DurationHistogram.getBucketUpperBound(2));
+        Assert.assertEquals(Long.MAX_VALUE, DurationHistogram
+                .getBucketUpperBound(DurationHistogram.BUCKET_COUNT - 1));
+    }
+}
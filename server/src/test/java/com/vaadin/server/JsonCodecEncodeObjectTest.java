@@ -0,0 +1,118 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.shared.ui.ContentMode;
+
+import elemental.json.JsonObject;
+
+public class JsonCodecEncodeObjectTest {
+
+    public static class Bean {
+        public String text = "text";
+        public int number = 1;
+        public Boolean flag = Boolean.TRUE;
+        public ContentMode mode = ContentMode.TEXT;
+        public List<String> list = Arrays.asList("a", "b");
+        private double value = 0.5;
+
+        public double getValue() {
+            return value;
+        }
+
+        public void setValue(double value) {
+            this.value = value;
+        }
+    }
+
+    public static class DuplicateNameBean {
+        public String foo;
+
+        public String getFoo() {
+            return foo;
+        }
+
+        public void setFoo(String foo) {
+            this.foo = foo;
+        }
+    }
+
+    @Test
+    public void encodeWithoutReference_allPropertiesInDiff() {
+        EncodeResult result = JsonCodec.encode(new Bean(), null, Bean.class,
+                null);
+
+        JsonObject diff = (JsonObject) result.getDiff();
+        Assert.assertEquals(6, diff.keys().length);
+        Assert.assertEquals("text", diff.getString("text"));
+        Assert.assertEquals(1, diff.getNumber("number"), 0);
+        Assert.assertTrue(diff.getBoolean("flag"));
+        Assert.assertEquals("TEXT", diff.getString("mode"));
+        Assert.assertEquals(2, diff.getArray("list").length());
+        Assert.assertEquals(0.5, diff.getNumber("value"), 0);
+    }
+
+    @Test
+    public void encodeUnchanged_emptyDiff() {
+        Bean bean = new Bean();
+        JsonObject reference = (JsonObject) JsonCodec
+                .encode(bean, null, Bean.class, null).getEncodedValue();
+
+        EncodeResult result = JsonCodec.encode(bean, reference, Bean.class,
+                null);
+
+        Assert.assertEquals(0, ((JsonObject) result.getDiff()).keys().length);
+        Assert.assertTrue(
+                JsonCodec.jsonEquals(reference, result.getEncodedValue()));
+    }
+
+    @Test
+    public void encodeChanged_onlyChangedPropertiesInDiff() {
+        Bean bean = new Bean();
+        JsonObject reference = (JsonObject) JsonCodec
+                .encode(bean, null, Bean.class, null).getEncodedValue();
+
+        bean.text = "other";
+        bean.mode = ContentMode.HTML;
+        bean.flag = null;
+        bean.setValue(1.5);
+        EncodeResult result = JsonCodec.encode(bean, reference, Bean.class,
+                null);
+
+        JsonObject diff = (JsonObject) result.getDiff();
+        Assert.assertEquals(4, diff.keys().length);
+        Assert.assertEquals("other", diff.getString("text"));
+        Assert.assertEquals("HTML", diff.getString("mode"));
+        Assert.assertTrue(diff.hasKey("flag"));
+        Assert.assertEquals(1.5, diff.getNumber("value"), 0);
+
+        JsonObject encoded = (JsonObject) result.getEncodedValue();
+        Assert.assertEquals(1, encoded.getNumber("number"), 0);
+        Assert.assertEquals("other", encoded.getString("text"));
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void encodeDuplicatePropertyNames_throws() {
+        JsonCodec.encode(new DuplicateNameBean(), null,
+                DuplicateNameBean.class, null);
+    }
+}
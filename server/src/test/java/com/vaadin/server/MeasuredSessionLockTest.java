@@ -0,0 +1,115 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+
+public class MeasuredSessionLockTest {
+
+    private VaadinService service;
+    private final List<SessionLockEvent> events = new ArrayList<>();
+
+    @Before
+    public void setup() throws ServiceException {
+        service = createService();
+        service.addSessionLockListener(events::add);
+    }
+
+    @Test
+    public void reentrantLocking_eventFiredOnFinalUnlock()
+            throws InterruptedException {
+        MeasuredSessionLock lock = new MeasuredSessionLock(service);
+
+        lock.lock();
+        lock.lock();
+        Thread.sleep(5);
+        lock.unlock();
+        Assert.assertTrue(events.isEmpty());
+        lock.unlock();
+
+        Assert.assertEquals(1, events.size());
+        SessionLockEvent event = events.get(0);
+        Assert.assertNull(event.getSession());
+        Assert.assertTrue(event.getHoldNanos() >= TimeUnit.MILLISECONDS
+                .toNanos(5));
+        Assert.assertNull(event.getBlockingStackTrace());
+        Assert.assertFalse(lock.isLocked());
+    }
+
+    @Test
+    public void slowHolder_stackTraceCaptured() throws Exception {
+        service.setSessionLockStackCaptureThreshold(10);
+        MeasuredSessionLock lock = new MeasuredSessionLock(service);
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread holder = new Thread(() -> {
+            lock.lock();
+            try {
+                locked.countDown();
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.unlock();
+            }
+        });
+        holder.start();
+        locked.await();
+
+        new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            release.countDown();
+        }).start();
+
+        lock.lock();
+        lock.unlock();
+        holder.join();
+
+        SessionLockEvent event = events.get(events.size() - 1);
+        Assert.assertTrue(event.getWaitNanos() >= TimeUnit.MILLISECONDS
+                .toNanos(10));
+        Assert.assertNotNull(event.getBlockingStackTrace());
+    }
+
+    @Test
+    public void noListeners_nothingMeasured() throws ServiceException {
+        MeasuredSessionLock lock = new MeasuredSessionLock(createService());
+
+        lock.lock();
+        lock.unlock();
+
+        Assert.assertTrue(events.isEmpty());
+    }
+
+    private static VaadinService createService() throws ServiceException {
+        return new VaadinServletService(new VaadinServlet(),
+                new MockDeploymentConfiguration());
+    }
+}
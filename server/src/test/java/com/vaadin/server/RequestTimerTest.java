@@ -0,0 +1,128 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.server.RequestTimer.Phase;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+import com.vaadin.ui.UI;
+import com.vaadin.util.CurrentInstance;
+
+public class RequestTimerTest {
+
+    private static class TestUI extends UI {
+        @Override
+        protected void init(VaadinRequest request) {
+        }
+    }
+
+    private VaadinService service;
+
+    @Before
+    public void setup() throws ServiceException {
+        service = new VaadinServletService(new VaadinServlet(),
+                new MockDeploymentConfiguration());
+    }
+
+    @After
+    public void tearDown() {
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    public void noListeners_requestNotTimed() {
+        Assert.assertNull(RequestTimer.start(service));
+
+        // Does nothing without a timer
+        RequestTimer.mark(Phase.LOCK_WAIT);
+        Assert.assertNull(CurrentInstance.get(RequestTimer.class));
+    }
+
+    @Test
+    public void phasesMarked_durationsReported() throws InterruptedException {
+        List<RequestTimingEvent> events = new ArrayList<>();
+        service.addRequestTimingListener(events::add);
+
+        RequestTimer timer = RequestTimer.start(service);
+        Thread.sleep(5);
+        RequestTimer.mark(Phase.LOCK_WAIT);
+        RequestTimer.setUI(new TestUI());
+        RequestTimer.mark(Phase.RPC_DECODE);
+        Thread.sleep(5);
+        RequestTimer.mark(Phase.RPC_INVOCATION);
+        Thread.sleep(5);
+        RequestTimer.mark(Phase.RPC_INVOCATION);
+        timer.finish();
+
+        Assert.assertNull(CurrentInstance.get(RequestTimer.class));
+        Assert.assertEquals(1, events.size());
+        RequestTimingEvent event = events.get(0);
+        Assert.assertEquals(TestUI.class, event.getUIClass());
+        long fiveMillis = TimeUnit.MILLISECONDS.toNanos(5);
+        Assert.assertTrue(event.getPhaseNanos(Phase.LOCK_WAIT) >= fiveMillis);
+        Assert.assertTrue(
+                event.getPhaseNanos(Phase.RPC_INVOCATION) >= 2 * fiveMillis);
+        Assert.assertEquals(0, event.getPhaseNanos(Phase.STATE_ENCODING));
+        Assert.assertTrue(event.getTotalNanos() >= 3 * fiveMillis);
+    }
+
+    @Test
+    public void finishedTwice_reportedOnceAndLaterMarksIgnored() {
+        List<RequestTimingEvent> events = new ArrayList<>();
+        service.addRequestTimingListener(events::add);
+
+        RequestTimer timer = RequestTimer.start(service);
+        RequestTimer.setUI(new TestUI());
+        RequestTimer.getCurrent().finish();
+        Assert.assertNull(RequestTimer.getCurrent());
+
+        // E.g. pushes to other UIs when the session is unlocked
+        RequestTimer.mark(Phase.RESPONSE_WRITE);
+        timer.finish();
+
+        Assert.assertEquals(1, events.size());
+        Assert.assertEquals(0,
+                events.get(0).getPhaseNanos(Phase.RESPONSE_WRITE));
+    }
+
+    @Test
+    public void statistics_aggregatedPerUIClass() {
+        RequestTimingStatistics statistics = new RequestTimingStatistics();
+        service.addRequestTimingListener(statistics);
+
+        for (int i = 0; i < 3; i++) {
+            RequestTimer timer = RequestTimer.start(service);
+            RequestTimer.setUI(new TestUI());
+            RequestTimer.mark(Phase.RESPONSE_WRITE);
+            timer.finish();
+        }
+
+        Assert.assertTrue(statistics.getUIClasses().contains(TestUI.class));
+        Assert.assertEquals(3, statistics
+                .getHistogram(TestUI.class, Phase.RESPONSE_WRITE).getCount());
+        Assert.assertEquals(3,
+                statistics.getTotalHistogram(TestUI.class).getCount());
+        Assert.assertNull(statistics.getTotalHistogram(UI.class));
+    }
+}
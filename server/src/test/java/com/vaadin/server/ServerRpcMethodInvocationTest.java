@@ -0,0 +1,45 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.shared.MouseEventDetails;
+import com.vaadin.shared.ui.ClickRpc;
+
+public class ServerRpcMethodInvocationTest {
+
+    @Test
+    public void knownMethod_methodFound() throws Exception {
+        ServerRpcMethodInvocation invocation = new ServerRpcMethodInvocation(
+                "1", ClickRpc.class, "click", 1);
+
+        Assert.assertEquals(
+                ClickRpc.class.getMethod("click", MouseEventDetails.class),
+                invocation.getMethod());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unknownMethod_throws() {
+        new ServerRpcMethodInvocation("1", ClickRpc.class, "noSuchMethod", 1);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void wrongParameterCount_throws() {
+        new ServerRpcMethodInvocation("1", ClickRpc.class, "click", 2);
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class StaticResourceCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void load_contentAndMetadataCached() throws IOException {
+        File file = createFile("foo.js", repeat("var a = 1;\n", 100));
+
+        StaticResourceCache.Entry entry = new StaticResourceCache(100000)
+                .load(file.toURI().toURL(), "application/javascript", false);
+
+        Assert.assertEquals(repeat("var a = 1;\n", 100),
+                new String(entry.getContent(), StandardCharsets.UTF_8));
+        Assert.assertEquals("application/javascript", entry.getMimeType());
+        Assert.assertEquals(file.toURI().toURL().toExternalForm(),
+                entry.getUrl());
+        Assert.assertEquals(0, entry.getLastModified() % 1000);
+        Assert.assertNull(entry.getGzippedContent());
+    }
+
+    @Test
+    public void load_compressedVariantCreated() throws IOException {
+        String content = repeat("var a = 1;\n", 100);
+        File file = createFile("foo.js", content);
+
+        StaticResourceCache.Entry entry = new StaticResourceCache(100000)
+                .load(file.toURI().toURL(), null, true);
+
+        Assert.assertTrue(entry.getGzippedContent().length < content.length());
+        Assert.assertEquals(content, gunzip(entry.getGzippedContent()));
+    }
+
+    @Test
+    public void load_precompressedVariantUsed() throws IOException {
+        File file = createFile("foo.js", repeat("var a = 1;\n", 100));
+        createFile("foo.js.gz", "precompressed");
+
+        StaticResourceCache.Entry entry = new StaticResourceCache(100000)
+                .load(file.toURI().toURL(), null, true);
+
+        Assert.assertEquals("precompressed", new String(
+                entry.getGzippedContent(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void load_tooLarge_notCached() throws IOException {
+        File file = createFile("foo.js", repeat("x", 300));
+
+        Assert.assertNull(new StaticResourceCache(1000)
+                .load(file.toURI().toURL(), null, false));
+    }
+
+    @Test
+    public void load_tooLarge_notReadAgain() throws IOException {
+        File file = createFile("foo.js", repeat("x", 300));
+        StaticResourceCache cache = new StaticResourceCache(1000);
+        cache.load(file.toURI().toURL(), null, false);
+
+        // Would fit now, but the resource is remembered as too large
+        Files.write(file.toPath(), "x".getBytes(StandardCharsets.UTF_8));
+
+        Assert.assertNull(cache.load(file.toURI().toURL(), null, false));
+    }
+
+    @Test
+    public void put_leastRecentlyUsedEvicted() {
+        StaticResourceCache cache = new StaticResourceCache(1000);
+
+        cache.put("a", createEntry(200));
+        cache.put("b", createEntry(200));
+        cache.put("c", createEntry(200));
+        cache.put("d", createEntry(200));
+        // Make b the least recently used
+        cache.get("a");
+
+        cache.put("e", createEntry(250));
+
+        Assert.assertNotNull(cache.get("a"));
+        Assert.assertNull(cache.get("b"));
+        Assert.assertNotNull(cache.get("c"));
+        Assert.assertNotNull(cache.get("e"));
+        Assert.assertEquals(850, cache.getSize());
+    }
+
+    @Test
+    public void put_replacedEntrySizeUpdated() {
+        StaticResourceCache cache = new StaticResourceCache(1000);
+
+        cache.put("a", createEntry(200));
+        cache.put("a", createEntry(100));
+
+        Assert.assertEquals(100, cache.getSize());
+    }
+
+    @Test
+    public void etag_dependsOnlyOnContent() {
+        StaticResourceCache.Entry entry = new StaticResourceCache.Entry("a",
+                null, 1000, "foo".getBytes(StandardCharsets.UTF_8), null);
+        StaticResourceCache.Entry sameContent = new StaticResourceCache.Entry(
+                "b", null, 2000, "foo".getBytes(StandardCharsets.UTF_8), null);
+        StaticResourceCache.Entry otherContent = new StaticResourceCache.Entry(
+                "a", null, 1000, "bar".getBytes(StandardCharsets.UTF_8), null);
+
+        Assert.assertEquals(entry.getETag(), sameContent.getETag());
+        Assert.assertNotEquals(entry.getETag(), otherContent.getETag());
+        Assert.assertTrue(entry.getETag().startsWith("\""));
+        Assert.assertTrue(entry.getETag().endsWith("\""));
+        Assert.assertNotEquals(entry.getETag(), entry.getGzippedETag());
+        Assert.assertTrue(entry.getGzippedETag().endsWith("-gzip\""));
+    }
+
+    private static StaticResourceCache.Entry createEntry(int size) {
+        return new StaticResourceCache.Entry("url", null, 0, new byte[size],
+                null);
+    }
+
+    private File createFile(String name, String content) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (InputStream is = new GZIPInputStream(
+                new ByteArrayInputStream(bytes))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int b;
+            while ((b = is.read()) >= 0) {
+                out.write(b);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String repeat(String string, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(string);
+        }
+        return builder.toString();
+    }
+}
@@ -18,14 +18,41 @@ package com.vaadin.server;
 import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpSessionBindingEvent;
 
 import org.easymock.EasyMock;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
-
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import com.vaadin.shared.ApplicationConstants;
+import com.vaadin.shared.ui.ui.UIConstants;
+import com.vaadin.tests.server.ClassesSerializableTest;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+import com.vaadin.ui.Button;
+import com.vaadin.ui.UI;
 import com.vaadin.util.CurrentInstance;
 
 /**
@@ -34,6 +61,9 @@ import com.vaadin.util.CurrentInstance;
  */
 public class VaadinServiceTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private class TestSessionDestroyListener implements SessionDestroyListener {
 
         int callCount = 0;
@@ -157,6 +187,245 @@ public class VaadinServiceTest {
                 "Original value", CurrentInstance.get(String.class));
     }
 
+    @Test
+    public void getStaticResourceHash_readFromManifests() throws IOException {
+        File themes = new File(folder.getRoot(), "VAADIN/themes");
+        File widgetsets = new File(folder.getRoot(), "VAADIN/widgetsets");
+        themes.mkdirs();
+        widgetsets.mkdirs();
+        Files.write(new File(themes, "resource-manifest.properties").toPath(),
+                "/VAADIN/themes/foo/styles.css=abc\n"
+                        .getBytes(StandardCharsets.ISO_8859_1));
+        Files.write(
+                new File(widgetsets, "resource-manifest.properties").toPath(),
+                "/VAADIN/widgetsets/ws/ws.nocache.js=def\n"
+                        .getBytes(StandardCharsets.ISO_8859_1));
+
+        VaadinService service = createService();
+        service.setClassLoader(new URLClassLoader(
+                new URL[] { folder.getRoot().toURI().toURL() }, null));
+
+        Assert.assertEquals("abc", service
+                .getStaticResourceHash("/VAADIN/themes/foo/styles.css"));
+        Assert.assertEquals("def", service
+                .getStaticResourceHash("/VAADIN/widgetsets/ws/ws.nocache.js"));
+        Assert.assertNull(service
+                .getStaticResourceHash("/VAADIN/themes/bar/styles.css"));
+    }
+
+    @Test
+    public void getForkJoinPool_afterDestroy_acceptsTasks() throws Exception {
+        VaadinService service = createService();
+        ForkJoinPool pool = service.getForkJoinPool();
+
+        service.destroy();
+
+        Assert.assertTrue(pool.isShutdown());
+        Assert.assertEquals(Integer.valueOf(1),
+                service.getForkJoinPool().submit(() -> 1).get());
+    }
+
+    @Test
+    public void reapSessions_closedAndInactiveUIsRemoved() {
+        VaadinService service = createService();
+        MockVaadinSession session = new MockVaadinSession(service);
+        ReentrantLock wrappedSessionLock = new ReentrantLock();
+        WrappedSession wrappedSession = Mockito.mock(WrappedSession.class);
+        Mockito.when(wrappedSession
+                .getAttribute(service.getServiceName() + ".lock"))
+                .thenReturn(wrappedSessionLock);
+        wrappedSessionLock.lock();
+        try {
+            service.storeSession(session, wrappedSession);
+        } finally {
+            wrappedSessionLock.unlock();
+        }
+
+        UI activeUI;
+        UI closedUI;
+        UI inactiveUI;
+        session.lock();
+        try {
+            activeUI = createUI(session);
+            closedUI = createUI(session);
+            closedUI.setContent(new Button());
+            closedUI.close();
+            inactiveUI = createUI(session);
+            inactiveUI.setLastHeartbeatTimestamp(0);
+        } finally {
+            session.unlock();
+        }
+        int expectedConnectors = closedUI.getConnectorTracker()
+                .getConnectorCount()
+                + inactiveUI.getConnectorTracker().getConnectorCount();
+
+        List<SessionReaperEvent> events = new ArrayList<>();
+        service.addSessionReaperListener(events::add);
+        service.reapSessions();
+
+        Assert.assertEquals(1, events.size());
+        SessionReaperEvent event = events.get(0);
+        Assert.assertEquals(1, event.getSessionCount());
+        Assert.assertEquals(0, event.getSkippedSessionCount());
+        Assert.assertEquals(2, event.getRemovedUICount());
+        Assert.assertEquals(expectedConnectors,
+                event.getReclaimedConnectorCount());
+
+        session.lock();
+        try {
+            Assert.assertEquals(1, session.getUIs().size());
+            Assert.assertSame(activeUI, session.getUIs().iterator().next());
+        } finally {
+            session.unlock();
+        }
+    }
+
+    @Test
+    public void serialize_sessionRegisteredForReaper_serviceSerializable()
+            throws Exception {
+        VaadinService service = new VaadinServletService(
+                new NamedVaadinServlet(), new MockDeploymentConfiguration());
+        service.setClassLoader(new SerializableClassLoader());
+        MockVaadinSession session = new MockVaadinSession(service);
+        ReentrantLock wrappedSessionLock = new ReentrantLock();
+        WrappedSession wrappedSession = Mockito.mock(WrappedSession.class);
+        Mockito.when(wrappedSession
+                .getAttribute(service.getServiceName() + ".lock"))
+                .thenReturn(wrappedSessionLock);
+        wrappedSessionLock.lock();
+        try {
+            service.storeSession(session, wrappedSession);
+        } finally {
+            wrappedSessionLock.unlock();
+        }
+
+        VaadinService copy = ClassesSerializableTest
+                .serializeAndDeserialize(service);
+
+        List<SessionReaperEvent> events = new ArrayList<>();
+        copy.addSessionReaperListener(events::add);
+        copy.reapSessions();
+        Assert.assertEquals(0, events.get(0).getSessionCount());
+    }
+
+    @Test
+    public void handleRequest_heartbeatWhileSessionLocked_handledWithoutLock()
+            throws Exception {
+        VaadinService service = createService();
+        MockVaadinSession session = new MockVaadinSession(service);
+        ReentrantLock wrappedSessionLock = new ReentrantLock();
+        WrappedSession wrappedSession = Mockito.mock(WrappedSession.class);
+        Mockito.when(wrappedSession
+                .getAttribute(service.getServiceName() + ".lock"))
+                .thenReturn(wrappedSessionLock);
+        Mockito.when(
+                wrappedSession.getAttribute(service.getSessionAttributeName()))
+                .thenReturn(session);
+        wrappedSessionLock.lock();
+        try {
+            service.storeSession(session, wrappedSession);
+        } finally {
+            wrappedSessionLock.unlock();
+        }
+        UI ui;
+        session.lock();
+        try {
+            ui = createUI(session);
+            ui.setLastHeartbeatTimestamp(0);
+            session.setNextInactiveUICheck(Long.MAX_VALUE);
+        } finally {
+            session.unlock();
+        }
+
+        VaadinRequest request = Mockito.mock(VaadinRequest.class);
+        Mockito.when(request.getPathInfo())
+                .thenReturn("/" + ApplicationConstants.HEARTBEAT_PATH + "/");
+        Mockito.when(request.getParameter(UIConstants.UI_ID_PARAMETER))
+                .thenReturn(String.valueOf(ui.getUIId()));
+        Mockito.when(request.getWrappedSession(false))
+                .thenReturn(wrappedSession);
+        Mockito.when(request.getService()).thenReturn(service);
+        VaadinResponse response = Mockito.mock(VaadinResponse.class);
+
+        // Simulate e.g. a long UIDL request holding the session lock
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        wrappedSessionLock.lock();
+        session.getLockInstance().lock();
+        try {
+            Future<?> heartbeat = executor.submit(() -> {
+                service.handleRequest(request, response);
+                return null;
+            });
+            heartbeat.get(5, TimeUnit.SECONDS);
+        } finally {
+            session.getLockInstance().unlock();
+            wrappedSessionLock.unlock();
+            executor.shutdownNow();
+        }
+
+        Assert.assertNotEquals(0, ui.getLastHeartbeatTimestamp());
+        Mockito.verify(response, Mockito.never())
+                .sendError(Mockito.anyInt(), Mockito.anyString());
+    }
+
+    private static class SerializableClassLoader extends ClassLoader
+            implements Serializable {
+    }
+
+    private static class NamedVaadinServlet extends VaadinServlet {
+        @Override
+        public String getServletName() {
+            return "test";
+        }
+    }
+
+    private static UI createUI(VaadinSession session) {
+        UI ui = new UI() {
+            @Override
+            protected void init(VaadinRequest request) {
+            }
+        };
+        ui.doInit(Mockito.mock(VaadinRequest.class), session.getNextUIid(),
+                null);
+        ui.setSession(session);
+        session.addUI(ui);
+        return ui;
+    }
+
+    @Test
+    public void sessionReaperInterval_reaperRunWithCreatedExecutor()
+            throws Exception {
+        ScheduledExecutorService executor = Mockito
+                .mock(ScheduledExecutorService.class);
+        Properties initParameters = new Properties();
+        initParameters.setProperty(
+                Constants.SERVLET_PARAMETER_SESSION_REAPER_INTERVAL, "60");
+        VaadinServlet servlet = new VaadinServlet() {
+            @Override
+            protected VaadinServletService createServletService(
+                    DeploymentConfiguration deploymentConfiguration)
+                    throws ServiceException {
+                VaadinServletService service = new VaadinServletService(this,
+                        deploymentConfiguration) {
+                    @Override
+                    protected ScheduledExecutorService createSessionReaperExecutor() {
+                        return executor;
+                    }
+                };
+                service.init();
+                return service;
+            }
+        };
+        servlet.init(new MockServletConfig(initParameters));
+
+        Mockito.verify(executor).scheduleWithFixedDelay(
+                Mockito.any(Runnable.class), Mockito.eq(60L),
+                Mockito.eq(60L), Mockito.eq(TimeUnit.SECONDS));
+
+        servlet.getService().destroy();
+        Mockito.verify(executor).shutdownNow();
+    }
+
     private static VaadinService createService() {
         ServletConfig servletConfig = new MockServletConfig();
         VaadinServlet servlet = new VaadinServlet();
@@ -126,6 +126,17 @@ public class VaadinServletTest {
 
     }
 
+    @Test
+    public void isETagMatch() {
+        Assert.assertTrue(VaadinServlet.isETagMatch("\"abc\"", "\"abc\""));
+        Assert.assertTrue(VaadinServlet.isETagMatch("W/\"abc\"", "\"abc\""));
+        Assert.assertTrue(
+                VaadinServlet.isETagMatch("\"x\", \"abc\"", "\"abc\""));
+        Assert.assertTrue(VaadinServlet.isETagMatch("*", "\"abc\""));
+        Assert.assertFalse(VaadinServlet.isETagMatch("\"ab\"", "\"abc\""));
+        Assert.assertFalse(VaadinServlet.isETagMatch("abc", "\"abc\""));
+    }
+
     private HttpServletRequest createServletRequest(String servletPath,
             String pathInfo) {
         HttpServletRequest request = Mockito.mock(HttpServletRequest.class);
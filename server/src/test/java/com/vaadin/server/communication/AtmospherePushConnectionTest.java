@@ -19,13 +19,22 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.atmosphere.cpr.AtmosphereResource;
 import org.easymock.EasyMock;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
 
+import com.vaadin.server.VaadinService;
+import com.vaadin.server.VaadinSession;
 import com.vaadin.server.communication.AtmospherePushConnection.State;
+import com.vaadin.shared.communication.PushMode;
+import com.vaadin.ui.PushConfiguration;
 import com.vaadin.ui.UI;
 
 public class AtmospherePushConnectionTest {
@@ -50,4 +59,56 @@ public class AtmospherePushConnectionTest {
 
         Assert.assertEquals(State.DISCONNECTED, connection.getState());
     }
+
+    @Test
+    public void throttledPush_pushesCoalescedAfterInterval() {
+        ScheduledExecutorService executor = Mockito
+                .mock(ScheduledExecutorService.class);
+        VaadinService service = Mockito.mock(VaadinService.class);
+        Mockito.when(service.getScheduledExecutor()).thenReturn(executor);
+        VaadinSession session = Mockito.mock(VaadinSession.class);
+        Mockito.when(session.getService()).thenReturn(service);
+        PushConfiguration pushConfiguration = Mockito
+                .mock(PushConfiguration.class);
+        Mockito.when(pushConfiguration.getPushMode())
+                .thenReturn(PushMode.THROTTLED);
+        Mockito.when(pushConfiguration.getMinimumPushInterval())
+                .thenReturn(10000);
+        UI ui = Mockito.mock(UI.class);
+        Mockito.when(ui.getSession()).thenReturn(session);
+        Mockito.when(ui.getPushConfiguration()).thenReturn(pushConfiguration);
+
+        AtomicInteger sentPushes = new AtomicInteger();
+        AtmospherePushConnection connection = new AtmospherePushConnection(
+                ui) {
+            @Override
+            void sendPush(boolean async) {
+                sentPushes.incrementAndGet();
+            }
+        };
+        connection.connect(Mockito.mock(AtmosphereResource.class));
+
+        connection.push();
+        Assert.assertEquals(1, sentPushes.get());
+
+        // Within the interval, pushes are deferred and scheduled only once
+        connection.push();
+        connection.push();
+        Assert.assertEquals(1, sentPushes.get());
+        ArgumentCaptor<Runnable> scheduled = ArgumentCaptor
+                .forClass(Runnable.class);
+        Mockito.verify(executor).schedule(scheduled.capture(),
+                Mockito.anyLong(), Mockito.eq(TimeUnit.MILLISECONDS));
+
+        // Responses to client requests are never throttled
+        connection.push(false);
+        Assert.assertEquals(2, sentPushes.get());
+
+        scheduled.getValue().run();
+        ArgumentCaptor<Runnable> access = ArgumentCaptor
+                .forClass(Runnable.class);
+        Mockito.verify(ui).access(access.capture());
+        access.getValue().run();
+        Mockito.verify(ui).push();
+    }
 }
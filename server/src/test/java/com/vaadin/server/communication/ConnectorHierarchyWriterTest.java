@@ -0,0 +1,189 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server.communication;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.server.ClientConnector;
+import com.vaadin.shared.JsonConstants;
+import com.vaadin.tests.util.MockUI;
+import com.vaadin.ui.ConnectorTracker;
+import com.vaadin.ui.CssLayout;
+import com.vaadin.ui.Label;
+import com.vaadin.ui.UI;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+public class ConnectorHierarchyWriterTest {
+
+    private UI ui;
+    private CssLayout layout;
+    private Label label;
+
+    @Before
+    public void setup() {
+        ui = new MockUI();
+        layout = new CssLayout();
+        label = new Label();
+        layout.addComponent(label);
+        ui.setContent(layout);
+    }
+
+    @Test
+    public void initialWrite_allParentsWritten() throws IOException {
+        JsonObject hierarchy = write(Collections.emptySet());
+
+        Assert.assertEquals(label.getConnectorId(),
+                hierarchy.getArray(layout.getConnectorId()).getString(0));
+        Assert.assertEquals(layout.getConnectorId(),
+                hierarchy.getArray(ui.getConnectorId()).getString(0));
+        Assert.assertFalse("Leaf without previous children should be omitted",
+                hierarchy.hasKey(label.getConnectorId()));
+    }
+
+    @Test
+    public void unchangedHierarchy_omitted() throws IOException {
+        write(Collections.emptySet());
+
+        ui.getConnectorTracker().markAllConnectorsDirty();
+        JsonObject hierarchy = write(Collections.emptySet());
+
+        Assert.assertEquals(0, hierarchy.keys().length);
+    }
+
+    @Test
+    public void unchangedHierarchyWithStateChange_written()
+            throws IOException {
+        write(Collections.emptySet());
+
+        ui.getConnectorTracker().markAllConnectorsDirty();
+        JsonObject hierarchy = write(
+                Collections.singleton(layout.getConnectorId()));
+
+        Assert.assertEquals(1, hierarchy.keys().length);
+        Assert.assertEquals(1,
+                hierarchy.getArray(layout.getConnectorId()).length());
+    }
+
+    @Test
+    public void childRemoved_emptyHierarchyWritten() throws IOException {
+        write(Collections.emptySet());
+
+        layout.removeAllComponents();
+        JsonObject hierarchy = write(Collections.emptySet());
+
+        Assert.assertEquals(0,
+                hierarchy.getArray(layout.getConnectorId()).length());
+    }
+
+    @Test
+    public void clientSideReset_hierarchyWrittenAgain() throws IOException {
+        write(Collections.emptySet());
+
+        ConnectorTracker tracker = ui.getConnectorTracker();
+        tracker.markAllConnectorsDirty();
+        tracker.markAllClientSidesUninitialized();
+        JsonObject hierarchy = write(Collections.emptySet());
+
+        Assert.assertTrue(hierarchy.hasKey(layout.getConnectorId()));
+        Assert.assertTrue(hierarchy.hasKey(ui.getConnectorId()));
+    }
+
+    @Test
+    public void wideLayoutChildAppended_deltaWritten() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            layout.addComponent(new Label());
+        }
+        write(Collections.emptySet());
+
+        Label appended = new Label();
+        layout.addComponent(appended);
+        JsonObject hierarchy = write(
+                Collections.singleton(layout.getConnectorId()));
+
+        JsonObject delta = hierarchy.getObject(layout.getConnectorId());
+        Assert.assertEquals(21,
+                delta.getNumber(JsonConstants.HIERARCHY_DELTA_START), 0);
+        Assert.assertEquals(0,
+                delta.getNumber(JsonConstants.HIERARCHY_DELTA_REMOVE_COUNT),
+                0);
+        JsonArray inserted = delta
+                .getArray(JsonConstants.HIERARCHY_DELTA_INSERT);
+        Assert.assertEquals(1, inserted.length());
+        Assert.assertEquals(appended.getConnectorId(), inserted.getString(0));
+    }
+
+    @Test
+    public void wideLayoutChildReplaced_deltaWritten() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            layout.addComponent(new Label());
+        }
+        write(Collections.emptySet());
+
+        Label replacement = new Label();
+        layout.replaceComponent(label, replacement);
+        JsonObject hierarchy = write(Collections.emptySet());
+
+        JsonObject delta = hierarchy.getObject(layout.getConnectorId());
+        Assert.assertEquals(0,
+                delta.getNumber(JsonConstants.HIERARCHY_DELTA_START), 0);
+        Assert.assertEquals(1,
+                delta.getNumber(JsonConstants.HIERARCHY_DELTA_REMOVE_COUNT),
+                0);
+        Assert.assertEquals(replacement.getConnectorId(), delta
+                .getArray(JsonConstants.HIERARCHY_DELTA_INSERT).getString(0));
+    }
+
+    @Test
+    public void wideLayoutAllChildrenReplaced_fullListWritten()
+            throws IOException {
+        for (int i = 0; i < 20; i++) {
+            layout.addComponent(new Label());
+        }
+        write(Collections.emptySet());
+
+        layout.removeAllComponents();
+        for (int i = 0; i < 20; i++) {
+            layout.addComponent(new Label());
+        }
+        JsonObject hierarchy = write(Collections.emptySet());
+
+        Assert.assertEquals(20,
+                hierarchy.getArray(layout.getConnectorId()).length());
+    }
+
+    private JsonObject write(Set<String> stateUpdateConnectors)
+            throws IOException {
+        StringWriter writer = new StringWriter();
+        new ConnectorHierarchyWriter().write(ui, writer,
+                stateUpdateConnectors);
+        ConnectorTracker tracker = ui.getConnectorTracker();
+        for (ClientConnector connector : tracker.getDirtyConnectors()) {
+            tracker.markClientSideInitialized(connector);
+        }
+        tracker.markAllConnectorsClean();
+        return Json.parse(writer.toString());
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server.communication;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.server.ClientConnector;
+import com.vaadin.server.PaintTarget;
+import com.vaadin.tests.util.MockUI;
+import com.vaadin.ui.ConnectorTracker;
+import com.vaadin.ui.Label;
+import com.vaadin.ui.UI;
+
+import elemental.json.Json;
+import elemental.json.JsonObject;
+
+public class ConnectorTypeWriterTest {
+
+    private UI ui;
+    private Label label;
+    private PaintTarget target;
+
+    @Before
+    public void setup() {
+        ui = new MockUI();
+        label = new Label();
+        ui.setContent(label);
+        target = Mockito.mock(PaintTarget.class);
+        Mockito.when(target.getTag(Mockito.any(ClientConnector.class)))
+                .thenReturn("1");
+    }
+
+    @Test
+    public void uninitializedConnectors_typesWritten() throws IOException {
+        JsonObject types = write();
+
+        Assert.assertEquals("1", types.getString(ui.getConnectorId()));
+        Assert.assertEquals("1", types.getString(label.getConnectorId()));
+    }
+
+    @Test
+    public void initializedConnectors_typesOmitted() throws IOException {
+        ConnectorTracker tracker = ui.getConnectorTracker();
+        tracker.markClientSideInitialized(ui);
+        tracker.markClientSideInitialized(label);
+
+        JsonObject types = write();
+
+        Assert.assertEquals(0, types.keys().length);
+    }
+
+    @Test
+    public void clientSideReset_typesWrittenAgain() throws IOException {
+        ConnectorTracker tracker = ui.getConnectorTracker();
+        tracker.markClientSideInitialized(ui);
+        tracker.markClientSideInitialized(label);
+        tracker.markAllClientSidesUninitialized();
+
+        JsonObject types = write();
+
+        Assert.assertEquals(2, types.keys().length);
+    }
+
+    private JsonObject write() throws IOException {
+        StringWriter writer = new StringWriter();
+        new ConnectorTypeWriter().write(ui, writer, target);
+        return Json.parse(writer.toString());
+    }
+}
@@ -15,7 +15,10 @@
  */
 package com.vaadin.server.communication;
 
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
@@ -24,14 +27,19 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import com.vaadin.server.ClientConnector;
 import com.vaadin.server.ServletPortletHelper;
 import com.vaadin.server.StreamVariable;
+import com.vaadin.server.StreamVariable.StreamingEndEvent;
+import com.vaadin.server.StreamVariable.StreamingProgressEvent;
 import com.vaadin.server.VaadinRequest;
 import com.vaadin.server.VaadinResponse;
 import com.vaadin.server.VaadinSession;
@@ -165,4 +173,41 @@ public class FileUploadHandlerTest {
 
         verifyZeroInteractions(responseOutput);
     }
+
+    @Test
+    public void progressEvents_coalescedIntoSingleAccessTask()
+            throws Exception {
+        handler = new FileUploadHandler() {
+            @Override
+            protected int getProgressEventInterval() {
+                return 0;
+            }
+
+            @Override
+            protected int getUploadBufferSize() {
+                return 1;
+            }
+        };
+        when(streamVariable.listenProgress()).thenReturn(true);
+
+        handler.streamToReceiver(session, createInputStream("foobar"),
+                streamVariable, "foo.txt", "text/plain", 6);
+
+        // Only one task is queued while the previous one has not run
+        ArgumentCaptor<Runnable> task = ArgumentCaptor.forClass(Runnable.class);
+        verify(session).access(task.capture());
+
+        // The final progress event is delivered before the end event
+        ArgumentCaptor<StreamingProgressEvent> progress = ArgumentCaptor
+                .forClass(StreamingProgressEvent.class);
+        InOrder inOrder = inOrder(streamVariable);
+        inOrder.verify(streamVariable).onProgress(progress.capture());
+        inOrder.verify(streamVariable)
+                .streamingFinished(any(StreamingEndEvent.class));
+        Assert.assertEquals(6, progress.getValue().getBytesReceived());
+
+        // The queued task has nothing to deliver any more
+        task.getValue().run();
+        verify(streamVariable, times(1)).onProgress(any());
+    }
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server.communication;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.server.MockVaadinSession;
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.server.VaadinResponse;
+import com.vaadin.server.VaadinServlet;
+import com.vaadin.server.VaadinServletService;
+import com.vaadin.server.VaadinSession;
+import com.vaadin.shared.ApplicationConstants;
+import com.vaadin.shared.ui.ui.UIConstants;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+import com.vaadin.ui.UI;
+
+public class HeartbeatHandlerTest {
+
+    @Test
+    public void handleRequest_sessionLockedByOtherThread_timestampUpdated()
+            throws Exception {
+        VaadinSession session = new MockVaadinSession(new VaadinServletService(
+                new VaadinServlet(), new MockDeploymentConfiguration()));
+        UI ui = Mockito.mock(UI.class);
+        Mockito.when(ui.getUIId()).thenReturn(1);
+        Mockito.when(ui.getSession()).thenReturn(session);
+        session.getLockInstance().lock();
+        try {
+            session.addUI(ui);
+        } finally {
+            session.getLockInstance().unlock();
+        }
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        Thread lockHolder = new Thread(() -> {
+            session.getLockInstance().lock();
+            try {
+                locked.countDown();
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                session.getLockInstance().unlock();
+            }
+        });
+        lockHolder.start();
+        Assert.assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        VaadinRequest request = Mockito.mock(VaadinRequest.class);
+        Mockito.when(request.getPathInfo())
+                .thenReturn("/" + ApplicationConstants.HEARTBEAT_PATH + "/");
+        Mockito.when(request.getParameter(UIConstants.UI_ID_PARAMETER))
+                .thenReturn("1");
+        VaadinResponse response = Mockito.mock(VaadinResponse.class);
+
+        try {
+            Assert.assertTrue(new HeartbeatHandler().handleRequest(session,
+                    request, response));
+        } finally {
+            done.countDown();
+            lockHolder.join();
+        }
+
+        Mockito.verify(ui).setLastHeartbeatTimestamp(Mockito.anyLong());
+        Mockito.verify(response, Mockito.never())
+                .sendError(Mockito.anyInt(), Mockito.anyString());
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.server.communication;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+import elemental.json.impl.JsonUtil;
+
+public class JsonStreamWriterTest {
+
+    private StringWriter writer;
+
+    @Before
+    public void setup() {
+        writer = new StringWriter();
+    }
+
+    @Test
+    public void writeEmptyObject() throws IOException {
+        JsonStreamWriter.beginObject(writer).end();
+        Assert.assertEquals("{}", writer.toString());
+    }
+
+    @Test
+    public void writeEmptyArray() throws IOException {
+        JsonStreamWriter.beginArray(writer).end();
+        Assert.assertEquals("[]", writer.toString());
+    }
+
+    @Test
+    public void writeObject_sameAsStringify() throws IOException {
+        JsonObject state = Json.createObject();
+        state.put("caption", "Say \"hello\"");
+        state.put("width", 100);
+
+        JsonStreamWriter object = JsonStreamWriter.beginObject(writer);
+        object.writeEntry("1", state);
+        object.writeEntry("2", "com.vaadin.ui.Label");
+        object.writeEntry("3", Arrays.asList("4", "5"));
+        object.writeEntry("6", Collections.emptyList());
+        object.end();
+
+        JsonObject expected = Json.createObject();
+        expected.put("1", state);
+        expected.put("2", "com.vaadin.ui.Label");
+        JsonArray children = Json.createArray();
+        children.set(0, "4");
+        children.set(1, "5");
+        expected.put("3", children);
+        expected.put("6", Json.createArray());
+
+        Assert.assertEquals(JsonUtil.stringify(expected), writer.toString());
+    }
+
+    @Test
+    public void writeArray_sameAsStringify() throws IOException {
+        JsonArray first = Json.createArray();
+        first.set(0, "1");
+        first.set(1, true);
+
+        JsonStreamWriter array = JsonStreamWriter.beginArray(writer);
+        array.writeValue(first);
+        array.writeValue(Json.create(2));
+        array.end();
+
+        JsonArray expected = Json.createArray();
+        expected.set(0, first);
+        expected.set(1, 2);
+
+        Assert.assertEquals(JsonUtil.stringify(expected), writer.toString());
+    }
+}
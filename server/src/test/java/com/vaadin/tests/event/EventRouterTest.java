@@ -15,7 +15,12 @@
  */
 package com.vaadin.tests.event;
 
+import java.io.Serializable;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EventObject;
+import java.util.List;
 
 import org.easymock.EasyMock;
 import org.junit.Assert;
@@ -24,8 +29,10 @@ import org.junit.Test;
 
 import com.vaadin.event.EventRouter;
 import com.vaadin.server.ErrorHandler;
+import com.vaadin.shared.Registration;
 import com.vaadin.ui.Component;
 import com.vaadin.ui.Component.Listener;
+import com.vaadin.ui.Window.CloseEvent;
 import com.vaadin.util.ReflectTools;
 
 /**
@@ -107,4 +114,87 @@ public class EventRouterTest {
         router.fireEvent(new Component.Event(component), errorHandler);
         EasyMock.verify(listener, listener2, errorHandler);
     }
+
+    @Test
+    public void fireEvent_listenersOfOtherTypes_onlyMatchingListenersCalled() {
+        EventRouter router = new EventRouter();
+        List<String> calls = new ArrayList<>();
+        router.addListener(EventObject.class,
+                (EventCollector) e -> calls.add("any"),
+                EventCollector.COLLECT_METHOD);
+        router.addListener(CloseEvent.class,
+                (EventCollector) e -> calls.add("close"),
+                EventCollector.COLLECT_METHOD);
+        router.addListener(Component.Event.class,
+                (EventCollector) e -> calls.add("component"),
+                EventCollector.COLLECT_METHOD);
+
+        router.fireEvent(new Component.Event(component));
+        Assert.assertEquals(Arrays.asList("any", "component"), calls);
+
+        calls.clear();
+        router.fireEvent(new EventObject(this));
+        Assert.assertEquals(Arrays.asList("any"), calls);
+    }
+
+    @Test
+    public void fireEvent_listenerAddedDuringDispatch_calledOnlyForNextEvent() {
+        EventRouter router = new EventRouter();
+        List<String> calls = new ArrayList<>();
+        router.addListener(EventObject.class, (EventCollector) e -> {
+            calls.add("first");
+            if (calls.size() == 1) {
+                router.addListener(EventObject.class,
+                        (EventCollector) e2 -> calls.add("added"),
+                        EventCollector.COLLECT_METHOD);
+            }
+        }, EventCollector.COLLECT_METHOD);
+
+        router.fireEvent(new EventObject(this));
+        Assert.assertEquals(Arrays.asList("first"), calls);
+
+        router.fireEvent(new EventObject(this));
+        Assert.assertEquals(Arrays.asList("first", "first", "added"), calls);
+    }
+
+    @Test
+    public void fireEvent_listenerRemovedAfterFiring_notCalled() {
+        EventRouter router = new EventRouter();
+        List<String> calls = new ArrayList<>();
+        Registration registration = router.addListener(EventObject.class,
+                (EventCollector) e -> calls.add("removed"),
+                EventCollector.COLLECT_METHOD);
+        router.addListener(EventObject.class,
+                (EventCollector) e -> calls.add("kept"),
+                EventCollector.COLLECT_METHOD);
+
+        router.fireEvent(new EventObject(this));
+        registration.remove();
+        router.fireEvent(new EventObject(this));
+
+        Assert.assertEquals(Arrays.asList("removed", "kept", "kept"), calls);
+    }
+
+    @Test
+    public void hasListeners_listenersAddedAndRemoved_onlyExactTypeReported() {
+        EventRouter router = new EventRouter();
+        Assert.assertFalse(router.hasListeners(Component.Event.class));
+
+        Registration registration = router.addListener(Component.Event.class,
+                listener, COMPONENT_EVENT_METHOD);
+        Assert.assertTrue(router.hasListeners(Component.Event.class));
+        Assert.assertFalse(router.hasListeners(EventObject.class));
+        Assert.assertFalse(router.hasListeners(CloseEvent.class));
+
+        registration.remove();
+        Assert.assertFalse(router.hasListeners(Component.Event.class));
+    }
+
+    @FunctionalInterface
+    public interface EventCollector extends Serializable {
+        public static final Method COLLECT_METHOD = ReflectTools
+                .findMethod(EventCollector.class, "collect", EventObject.class);
+
+        public void collect(EventObject event);
+    }
 }
@@ -1,7 +1,10 @@
 package com.vaadin.tests.server;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 import java.lang.reflect.Field;
@@ -89,9 +92,52 @@ public class KeyMapperTest {
 
     }
 
+    private static class Item {
+        private final int id;
+
+        private Item(int id) {
+            this.id = id;
+        }
+    }
+
+    @Test
+    public void testIdentifierGetter() {
+        KeyMapper<Item> mapper = new KeyMapper<>(item -> item.id);
+        Item item = new Item(1);
+        Item updated = new Item(1);
+
+        String key = mapper.key(item);
+        assertTrue(mapper.has(updated));
+        assertEquals(key, mapper.key(updated));
+        assertSize(mapper, 1);
+
+        mapper.refresh(updated);
+        assertSame(updated, mapper.get(key));
+
+        mapper.refresh(new Item(2));
+        assertSize(mapper, 1);
+
+        mapper.remove(new Item(1));
+        assertFalse(mapper.has(item));
+        assertSize(mapper, 0);
+    }
+
+    @Test
+    public void testSetIdentifierGetter() {
+        KeyMapper<Item> mapper = new KeyMapper<>();
+        Item item = new Item(1);
+        String key = mapper.key(item);
+        assertFalse(mapper.has(new Item(1)));
+
+        mapper.setIdentifierGetter(i -> i.id);
+        assertTrue(mapper.has(new Item(1)));
+        assertEquals(key, mapper.key(new Item(1)));
+        assertSize(mapper, 1);
+    }
+
     private void assertSize(KeyMapper<?> mapper, int i) {
         try {
-            Field f1 = KeyMapper.class.getDeclaredField("objectKeyMap");
+            Field f1 = KeyMapper.class.getDeclaredField("objectIdKeyMap");
             Field f2 = KeyMapper.class.getDeclaredField("keyObjectMap");
             f1.setAccessible(true);
             f2.setAccessible(true);
@@ -2,9 +2,13 @@ package com.vaadin.tests.server;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Arrays;
+import java.util.Random;
 
+import org.junit.Assert;
 import org.junit.Test;
 
 import com.vaadin.server.communication.FileUploadHandler.SimpleMultiPartInputStream;
@@ -112,6 +116,49 @@ public class SimpleMultiPartInputStreamTest {
                 "abcabd", "xyz123abc");
     }
 
+    @Test
+    public void testBoundarySplitBetweenReads() throws Exception {
+        byte[] content = new byte[100000];
+        new Random(42).nextBytes(content);
+        byte[] boundary = getFullBoundary("abcabd").getBytes("ISO-8859-1");
+        byte[] input = Arrays.copyOf(content,
+                content.length + boundary.length);
+        System.arraycopy(boundary, 0, input, content.length,
+                boundary.length);
+
+        // Underlying stream returning a few bytes at a time
+        InputStream trickle = new FilterInputStream(
+                new ByteArrayInputStream(input)) {
+            private int count = 0;
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return super.read(b, off, Math.min(len, 1 + count++ % 7));
+            }
+        };
+        SimpleMultiPartInputStream smpis = new SimpleMultiPartInputStream(
+                trickle, "abcabd");
+        ByteArrayOutputStream resultStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = smpis.read(buffer)) != -1) {
+            resultStream.write(buffer, 0, read);
+        }
+
+        Assert.assertArrayEquals(content, resultStream.toByteArray());
+        Assert.assertEquals(-1, smpis.read());
+    }
+
+    @Test(expected = IOException.class)
+    public void testBulkReadWithoutBoundary() throws Exception {
+        SimpleMultiPartInputStream smpis = new SimpleMultiPartInputStream(
+                new ByteArrayInputStream(new byte[10000]), "abc");
+        byte[] buffer = new byte[4096];
+        while (smpis.read(buffer) != -1) {
+            // Read until the stream ends
+        }
+    }
+
     /*
      * TODO fix these tests, they don't do what their method name says.
      */
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.ui;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.server.JsonCodec;
+import com.vaadin.tests.server.ClassesSerializableTest;
+import com.vaadin.tests.util.MockUI;
+
+import elemental.json.Json;
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+public class ConnectorTrackerSerializationTest {
+
+    @Test
+    public void serializeDiffStates_diffStatesRestored() throws Exception {
+        UI ui = new MockUI();
+        Label label = new Label("Some text");
+        ui.setContent(label);
+
+        ConnectorTracker tracker = ui.getConnectorTracker();
+        JsonObject diffState = Json.createObject();
+        diffState.put("text", "Some text");
+        diffState.put("width", -1.5);
+        diffState.put("enabled", true);
+        diffState.put("caption", Json.createNull());
+        JsonArray styles = Json.createArray();
+        styles.set(0, "first");
+        styles.set(1, Json.createObject());
+        diffState.put("styles", styles);
+        tracker.setDiffState(label, diffState);
+
+        UI copy = ClassesSerializableTest.serializeAndDeserialize(ui);
+
+        Label labelCopy = (Label) copy.getContent();
+        JsonObject diffStateCopy = copy.getConnectorTracker()
+                .getDiffState(labelCopy);
+        Assert.assertNotNull(diffStateCopy);
+        Assert.assertTrue(JsonCodec.jsonEquals(diffState, diffStateCopy));
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2000-2016 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MethodInvokerTest {
+
+    public interface Target {
+        public void noArgs();
+
+        public void primitiveAndObject(int number, String text);
+
+        public void fail();
+
+        public String withReturnValue(String text);
+    }
+
+    public static class TargetImpl implements Target {
+        private final List<Object> calls = new ArrayList<>();
+
+        @Override
+        public void noArgs() {
+            calls.add("noArgs");
+        }
+
+        @Override
+        public void primitiveAndObject(int number, String text) {
+            calls.add(number);
+            calls.add(text);
+        }
+
+        @Override
+        public void fail() {
+            throw new IllegalStateException("Failed");
+        }
+
+        @Override
+        public String withReturnValue(String text) {
+            return text + text;
+        }
+    }
+
+    static class PackagePrivateTarget {
+        public void run() {
+        }
+    }
+
+    @Test
+    public void invoke_generated_argumentsPassed() throws Exception {
+        TargetImpl target = new TargetImpl();
+
+        MethodInvoker noArgs = MethodInvoker
+                .forMethod(Target.class.getMethod("noArgs"));
+        MethodInvoker primitiveAndObject = MethodInvoker.forMethod(Target.class
+                .getMethod("primitiveAndObject", int.class, String.class));
+        Assert.assertTrue(noArgs.isGenerated());
+        Assert.assertTrue(primitiveAndObject.isGenerated());
+
+        Assert.assertNull(noArgs.invoke(target));
+        primitiveAndObject.invoke(target, 42, "foo");
+
+        Assert.assertEquals(3, target.calls.size());
+        Assert.assertEquals("noArgs", target.calls.get(0));
+        Assert.assertEquals(42, target.calls.get(1));
+        Assert.assertEquals("foo", target.calls.get(2));
+    }
+
+    @Test
+    public void invoke_generatedMethodThrows_exceptionWrapped()
+            throws Exception {
+        MethodInvoker invoker = MethodInvoker
+                .forMethod(Target.class.getMethod("fail"));
+        try {
+            invoker.invoke(new TargetImpl());
+            Assert.fail("Should throw");
+        } catch (InvocationTargetException e) {
+            Assert.assertEquals(IllegalStateException.class,
+                    e.getCause().getClass());
+        }
+    }
+
+    @Test
+    public void invoke_returnValue_invokedReflectively() throws Exception {
+        MethodInvoker invoker = MethodInvoker.forMethod(
+                Target.class.getMethod("withReturnValue", String.class));
+        Assert.assertFalse(invoker.isGenerated());
+        Assert.assertEquals("barbar", invoker.invoke(new TargetImpl(), "bar"));
+    }
+
+    @Test
+    public void forMethod_nonPublicClass_notGenerated() throws Exception {
+        Method method = PackagePrivateTarget.class.getMethod("run");
+        Assert.assertFalse(MethodInvoker.forMethod(method).isGenerated());
+    }
+
+    @Test
+    public void forMethod_sameMethod_sameInvoker() throws Exception {
+        Assert.assertSame(
+                MethodInvoker.forMethod(Target.class.getMethod("noArgs")),
+                MethodInvoker.forMethod(Target.class.getMethod("noArgs")));
+    }
+}
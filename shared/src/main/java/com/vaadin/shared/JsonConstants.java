@@ -34,4 +34,31 @@ public class JsonConstants implements Serializable {
 
     public static final String JSON_CONTENT_TYPE = "application/json; charset=UTF-8";
 
+    /**
+     * Key for the index of the first changed child in a connector hierarchy
+     * delta. A delta is sent as an object instead of the full array of child
+     * connector ids when only a small part of a wide hierarchy has changed.
+     * The delta is applied like <code>Array.splice</code> to the children the
+     * client already has.
+     *
+     * @since 8.0
+     */
+    public static final String HIERARCHY_DELTA_START = "s";
+
+    /**
+     * Key for the number of children removed starting from
+     * {@link #HIERARCHY_DELTA_START} in a connector hierarchy delta.
+     *
+     * @since 8.0
+     */
+    public static final String HIERARCHY_DELTA_REMOVE_COUNT = "r";
+
+    /**
+     * Key for the array of child connector ids inserted at
+     * {@link #HIERARCHY_DELTA_START} in a connector hierarchy delta.
+     *
+     * @since 8.0
+     */
+    public static final String HIERARCHY_DELTA_INSERT = "i";
+
 }
@@ -18,8 +18,11 @@ package com.vaadin.shared.annotations;
 
 import java.lang.annotation.Documented;
 import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+import com.vaadin.shared.communication.ClientRpc;
 import com.vaadin.shared.communication.ServerRpc;
 
 /**
@@ -28,12 +31,18 @@ import com.vaadin.shared.communication.ServerRpc;
  * invocations, but it will not cause the queue to be purged and sent to the
  * server. The queue will instead be sent when any RPC method not marked
  * as @Delayed has been invoked.
+ * <p>
+ * This annotation can also be used for methods in a {@link ClientRpc}
+ * interface, but only {@link #lastOnly()} has any effect for those: invoking
+ * the method on the server removes any previous invocations of the same method
+ * for the same connector that have not yet been sent to the client.
  *
  * @author Vaadin Ltd
  * @version @VERSION@
  * @since 7.0.0
  */
 @Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
 @Documented
 public @interface Delayed {
     /**
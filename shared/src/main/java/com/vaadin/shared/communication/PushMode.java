@@ -51,7 +51,20 @@ public enum PushMode {
      * server-side state are automatically pushed to the client once the session
      * lock is released.
      */
-    AUTOMATIC;
+    AUTOMATIC,
+
+    /**
+     * Push is enabled. Like {@link #AUTOMATIC}, but changes are pushed at most
+     * once per
+     * {@link com.vaadin.ui.PushConfiguration#getMinimumPushInterval() minimum
+     * push interval}. Changes made while waiting for the interval to pass or
+     * for the previous message to be sent are pushed together in one message.
+     * This avoids flooding the client with small messages when the
+     * server-side state is updated frequently, at the cost of latency.
+     *
+     * @since 8.0
+     */
+    THROTTLED;
 
     /**
      * Checks whether the push mode is using push functionality
@@ -63,4 +76,16 @@ public enum PushMode {
     public boolean isEnabled() {
         return this != DISABLED;
     }
+
+    /**
+     * Checks whether changes are automatically pushed when the session lock is
+     * released in this mode.
+     *
+     * @since 8.0
+     * @return <code>true</code> if changes are pushed automatically;
+     *         <code>false</code> if push is disabled or manual.
+     */
+    public boolean isAutomatic() {
+        return this == AUTOMATIC || this == THROTTLED;
+    }
 }
@@ -15,6 +15,7 @@
  */
 package com.vaadin.shared.ui.textfield;
 
+import com.vaadin.shared.annotations.Delayed;
 import com.vaadin.shared.communication.ClientRpc;
 
 /**
@@ -30,6 +31,7 @@ public interface AbstractTextFieldClientRpc extends ClientRpc {
      * @param length
      *            the length to select
      */
+    @Delayed(lastOnly = true)
     void selectRange(int start, int length);
 
     /**
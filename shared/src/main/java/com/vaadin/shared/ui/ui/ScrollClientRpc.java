@@ -16,14 +16,17 @@
 
 package com.vaadin.shared.ui.ui;
 
+import com.vaadin.shared.annotations.Delayed;
 import com.vaadin.shared.annotations.NoLayout;
 import com.vaadin.shared.communication.ClientRpc;
 
 public interface ScrollClientRpc extends ClientRpc {
 
     @NoLayout
+    @Delayed(lastOnly = true)
     public void setScrollTop(int scrollTop);
 
     @NoLayout
+    @Delayed(lastOnly = true)
     public void setScrollLeft(int scrollLeft);
 }
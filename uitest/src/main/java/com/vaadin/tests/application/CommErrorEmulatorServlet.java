@@ -24,6 +24,7 @@ import java.util.Map;
 import com.vaadin.server.DeploymentConfiguration;
 import com.vaadin.server.RequestHandler;
 import com.vaadin.server.ServiceException;
+import com.vaadin.server.ServletPortletHelper;
 import com.vaadin.server.VaadinRequest;
 import com.vaadin.server.VaadinResponse;
 import com.vaadin.server.VaadinServlet;
@@ -60,17 +61,19 @@ public class CommErrorEmulatorServlet extends VaadinServlet {
 
     public class CommErrorHeartbeatHandler extends HeartbeatHandler {
         @Override
-        public boolean synchronizedHandleRequest(VaadinSession session,
+        public boolean handleRequest(VaadinSession session,
                 VaadinRequest request, VaadinResponse response)
                 throws IOException {
-            UI ui = session.getService().findUI(request);
-            if (ui != null && heartbeatResponseCode.containsKey(ui)) {
-                response.sendError(heartbeatResponseCode.get(ui),
-                        "Error set in UI");
-                return true;
+            if (ServletPortletHelper.isHeartbeatRequest(request)) {
+                UI ui = findUI(session, request);
+                if (ui != null && heartbeatResponseCode.containsKey(ui)) {
+                    response.sendError(heartbeatResponseCode.get(ui),
+                            "Error set in UI");
+                    return true;
+                }
             }
 
-            return super.synchronizedHandleRequest(session, request, response);
+            return super.handleRequest(session, request, response);
         }
 
     }